@@ -0,0 +1,4 @@
+// Annotation processors run on their own classpath, so this module only
+// refers to the NookCore-Event types by name and has no project dependency.
+dependencies {
+}
@@ -0,0 +1,250 @@
+package com.nookure.core.event.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates an {@code EventListenerIndex} for every class declaring methods
+ * annotated with {@code @NookSubscribe}.
+ * <p>
+ * The index lists the handlers of the class with their annotation values
+ * and, for every handler that generated code is allowed to call, an invoker
+ * calling the method directly, so registering an indexed listener doesn't
+ * need reflection.
+ * Classes that generated code can't reference, such as private nested
+ * classes, are not indexed and keep being registered through reflection.
+ * <p>
+ * Add this module to the annotation processor path of the plugin to use it.
+ */
+public class NookSubscribeProcessor extends AbstractProcessor {
+  private static final String NOOK_SUBSCRIBE = "com.nookure.core.event.NookSubscribe";
+  private static final String EVENT = "com.nookure.core.event.Event";
+  private static final String EVENT_INVOKER = "com.nookure.core.event.EventInvoker";
+  private static final String EVENT_PRIORITY = "com.nookure.core.event.EventPriority";
+  private static final String EVENT_LANE = "com.nookure.core.event.EventLane";
+  private static final String INDEX = "com.nookure.core.event.index.EventListenerIndex";
+  private static final String INDEXED_HANDLER = "com.nookure.core.event.index.IndexedHandler";
+  private static final String INDEX_SUFFIX = "_NookListenerIndex";
+
+  private Elements elements;
+  private Types types;
+  private Messager messager;
+  private Filer filer;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.elements = processingEnv.getElementUtils();
+    this.types = processingEnv.getTypeUtils();
+    this.messager = processingEnv.getMessager();
+    this.filer = processingEnv.getFiler();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Set.of(NOOK_SUBSCRIBE);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement nookSubscribe = elements.getTypeElement(NOOK_SUBSCRIBE);
+    TypeElement event = elements.getTypeElement(EVENT);
+
+    if (nookSubscribe == null || event == null) return false;
+
+    Map<TypeElement, List<ExecutableElement>> handlersByListener = new LinkedHashMap<>();
+
+    for (Element element : roundEnv.getElementsAnnotatedWith(nookSubscribe)) {
+      if (element.getKind() != ElementKind.METHOD) continue;
+
+      ExecutableElement method = (ExecutableElement) element;
+
+      // Same rules as the reflective registration, see EventManager#registerListener
+      if (method.getParameters().size() != 1) {
+        messager.printMessage(Diagnostic.Kind.WARNING, "Event handlers must take exactly one parameter, it will be ignored", method);
+        continue;
+      }
+
+      if (!types.isAssignable(types.erasure(method.getParameters().get(0).asType()), event.asType())) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "Event handler method must have a parameter that extends Event", method);
+        continue;
+      }
+
+      handlersByListener
+          .computeIfAbsent((TypeElement) method.getEnclosingElement(), key -> new ArrayList<>())
+          .add(method);
+    }
+
+    handlersByListener.forEach((listener, handlers) -> writeIndex(listener, handlers, nookSubscribe));
+    return false;
+  }
+
+  private void writeIndex(TypeElement listener, List<ExecutableElement> handlers, TypeElement nookSubscribe) {
+    PackageElement packageElement = elements.getPackageOf(listener);
+
+    if (!isAccessible(listener, packageElement)) return;
+
+    for (ExecutableElement handler : handlers) {
+      if (!isAccessible(eventTypeOf(handler), packageElement)) return;
+    }
+
+    String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    String binaryName = elements.getBinaryName(listener).toString();
+    String simpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + INDEX_SUFFIX;
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    String listenerType = types.erasure(listener.asType()).toString();
+
+    StringBuilder source = new StringBuilder();
+
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+
+    source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+
+    // Generic listeners are called through their raw type
+    if (!types.isSameType(listener.asType(), types.erasure(listener.asType()))) {
+      source.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+    }
+
+    source.append("public final class ").append(simpleName).append(" implements ").append(INDEX).append(" {\n")
+        .append("  private static final java.util.List<").append(INDEXED_HANDLER).append("> HANDLERS = java.util.List.of(\n");
+
+    List<String> invokers = new ArrayList<>();
+
+    for (int i = 0; i < handlers.size(); i++) {
+      ExecutableElement handler = handlers.get(i);
+      String eventType = types.erasure(eventTypeOf(handler).asType()).toString();
+      String invoker = "null";
+
+      if (!handler.getModifiers().contains(Modifier.PRIVATE)) {
+        invoker = "new Invoker" + i + "()";
+        String target = handler.getModifiers().contains(Modifier.STATIC)
+            ? listenerType
+            : "((" + listenerType + ") listener)";
+
+        invokers.add("  private static final class Invoker" + i + " implements " + EVENT_INVOKER + " {\n"
+            + "    @Override\n"
+            + "    public void invoke(Object listener, " + EVENT + " event) throws Throwable {\n"
+            + "      " + target + "." + handler.getSimpleName() + "((" + eventType + ") event);\n"
+            + "    }\n"
+            + "  }\n");
+      }
+
+      Map<String, Object> values = annotationValues(handler, nookSubscribe);
+
+      source.append("      new ").append(INDEXED_HANDLER).append("(\"")
+          .append(handler.getSimpleName()).append("\", ")
+          .append(eventType).append(".class, ")
+          .append(EVENT_PRIORITY).append('.').append(values.get("priority")).append(", ")
+          .append(EVENT_LANE).append('.').append(values.get("lane")).append(", ")
+          .append(values.get("ignoreCancelled")).append(", ")
+          .append(values.get("parallel")).append(", ")
+          .append(invoker).append(")")
+          .append(i + 1 < handlers.size() ? ",\n" : "\n");
+    }
+
+    source.append("  );\n\n")
+        .append("  @Override\n")
+        .append("  public java.util.List<").append(INDEXED_HANDLER).append("> handlers() {\n")
+        .append("    return HANDLERS;\n")
+        .append("  }\n");
+
+    for (String invoker : invokers) {
+      source.append('\n').append(invoker);
+    }
+
+    source.append("}\n");
+
+    try (Writer writer = filer.createSourceFile(qualifiedName, listener).openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException e) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "Could not write the listener index: " + e.getMessage(), listener);
+    }
+  }
+
+  /**
+   * Get the values of the {@code @NookSubscribe} annotation of a handler,
+   * defaults included, enum constants are given by their name
+   */
+  private Map<String, Object> annotationValues(ExecutableElement handler, TypeElement nookSubscribe) {
+    Map<String, Object> values = new LinkedHashMap<>();
+
+    for (AnnotationMirror mirror : handler.getAnnotationMirrors()) {
+      if (!types.isSameType(mirror.getAnnotationType(), nookSubscribe.asType())) continue;
+
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+        Object value = entry.getValue().getValue();
+
+        values.put(
+            entry.getKey().getSimpleName().toString(),
+            value instanceof VariableElement constant ? constant.getSimpleName().toString() : value
+        );
+      }
+    }
+
+    return values;
+  }
+
+  private TypeElement eventTypeOf(ExecutableElement handler) {
+    TypeMirror type = types.erasure(handler.getParameters().get(0).asType());
+    return type.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) type).asElement() : null;
+  }
+
+  /**
+   * Check if generated code in the given package can name a type,
+   * that is, the type and all its enclosing types are visible from it
+   */
+  private boolean isAccessible(TypeElement type, PackageElement from) {
+    if (type == null) return false;
+
+    Element current = type;
+
+    while (current instanceof TypeElement typeElement) {
+      NestingKind nesting = typeElement.getNestingKind();
+
+      if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) return false;
+
+      Set<Modifier> modifiers = typeElement.getModifiers();
+
+      if (modifiers.contains(Modifier.PRIVATE)) return false;
+      if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(typeElement).equals(from)) return false;
+
+      current = typeElement.getEnclosingElement();
+    }
+
+    return true;
+  }
+}
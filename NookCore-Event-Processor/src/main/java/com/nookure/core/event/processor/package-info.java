@@ -0,0 +1,4 @@
+/**
+ * This package contains the annotation processor that indexes event listeners at compile time
+ */
+package com.nookure.core.event.processor;
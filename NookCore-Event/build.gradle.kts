@@ -1,4 +1,19 @@
+plugins {
+  alias(libs.plugins.jmh)
+}
+
 dependencies {
   api(project(":NookCore-Logger"))
   api(project(":NookCore-Core"))
+  // Indexes the test listeners, so the tests cover what the processor generates
+  testAnnotationProcessor(project(":NookCore-Event-Processor"))
+  jmh(libs.guice)
+  jmh(libs.adventureApi)
+  jmh(libs.miniMessage)
+}
+
+jmh {
+  jmhVersion = libs.versions.jmh
+  // Reports the allocation rate next to the timings
+  profilers.add("gc")
 }
@@ -0,0 +1,102 @@
+package com.nookure.core.event;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.nookure.core.annotation.PluginDebug;
+import com.nookure.core.logger.annotation.PluginAudience;
+import com.nookure.core.logger.annotation.PluginLoggerColor;
+import com.nookure.core.logger.annotation.PluginName;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares the cost of calling a {@link NookSubscribe} handler through
+ * {@link Method#invoke(Object, Object...)}, the way handlers used to be called,
+ * with the generated {@link EventInvoker}, a direct call and a whole
+ * {@link EventManager#fireEventSync(Event)} dispatch.
+ * <p>
+ * Run it with {@code ./gradlew :NookCore-Event:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+  private final CountingListener listener = new CountingListener();
+  private final CountedEvent event = new CountedEvent();
+  private Method method;
+  private EventInvoker invoker;
+  private EventManager eventManager;
+
+  @Setup
+  public void setup() throws NoSuchMethodException {
+    method = CountingListener.class.getDeclaredMethod("onEvent", CountedEvent.class);
+    invoker = EventInvokers.create(method);
+    eventManager = Guice.createInjector(new BenchmarkModule()).getInstance(EventManager.class);
+    // Measure the dispatch itself, not the handler timings
+    eventManager.setInstrumentationEnabled(false);
+    eventManager.registerListener(listener);
+  }
+
+  @Benchmark
+  public long direct() {
+    listener.onEvent(event);
+    return listener.count;
+  }
+
+  @Benchmark
+  public long reflective() throws ReflectiveOperationException {
+    method.invoke(listener, event);
+    return listener.count;
+  }
+
+  @Benchmark
+  public long invoker() throws Throwable {
+    invoker.invoke(listener, event);
+    return listener.count;
+  }
+
+  @Benchmark
+  public long fireEventSync() {
+    eventManager.fireEventSync(event);
+    return listener.count;
+  }
+
+  public static class CountedEvent implements Event {
+  }
+
+  public static class CountingListener {
+    private long count;
+
+    @NookSubscribe(lane = EventLane.SYNC)
+    public void onEvent(CountedEvent event) {
+      count++;
+    }
+  }
+
+  static class BenchmarkModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      bind(AtomicBoolean.class).annotatedWith(PluginDebug.class).toInstance(new AtomicBoolean(false));
+      bind(String.class).annotatedWith(PluginName.class).toInstance("NookCore Benchmark");
+      bind(NamedTextColor.class).annotatedWith(PluginLoggerColor.class).toInstance(NamedTextColor.GRAY);
+      bind(Audience.class).annotatedWith(PluginAudience.class).toInstance(Audience.empty());
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.nookure.core.event;
+
+/**
+ * An event that can be cancelled by its handlers.
+ * <p>
+ * Once a handler cancels the event, the handlers declared with
+ * {@link NookSubscribe#ignoreCancelled()} are skipped without being called,
+ * the rest of them, including the {@link EventPriority#MONITOR} ones,
+ * still see the event and its final state.
+ *
+ * @since 1.1.0
+ */
+public interface Cancellable extends Event {
+  /**
+   * Check if the event has been cancelled
+   *
+   * @return true if the event has been cancelled
+   */
+  boolean isCancelled();
+
+  /**
+   * Set the cancellation state of the event
+   *
+   * @param cancelled true to cancel the event
+   */
+  void setCancelled(boolean cancelled);
+}
@@ -0,0 +1,162 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts {@link PluginMessageChunk}s back together.
+ * <p>
+ * Chunks are kept as received and only read as a stream once the last one
+ * arrives. A message is dropped when it grows past the byte budget of a
+ * message, when the budget shared by all the pending messages is exhausted,
+ * when a chunk is missing, when its sender aborts it, or when no chunk arrived
+ * within the timeout.
+ */
+final class ChunkAssembler {
+  private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+  private final Map<Key, Pending> pending = new HashMap<>();
+  private long bufferedBytes;
+  private long lastSweep = System.nanoTime();
+
+  /**
+   * Add a chunk
+   *
+   * @return A stream over the whole message once the last chunk is added, null until then
+   * @throws IOException If the chunk is malformed, out of order, over budget or
+   *                     aborts the message, the message is dropped
+   */
+  @Nullable
+  synchronized InputStream add(@NotNull Object source, byte @NotNull [] chunk, int maxMessageBytes, int maxBufferedBytes, long timeoutNanos) throws IOException {
+    long now = System.nanoTime();
+
+    if (now - lastSweep > SWEEP_INTERVAL_NANOS) {
+      sweep(now, timeoutNanos);
+      lastSweep = now;
+    }
+
+    ByteBuffer header = ByteBuffer.wrap(chunk);
+    header.getShort();
+    long messageId = header.getLong();
+    int index = header.getInt();
+    byte flags = header.get();
+    boolean last = (flags & PluginMessageChunk.FLAG_LAST) != 0;
+    int length = chunk.length - PluginMessageChunk.HEADER_BYTES;
+
+    Key key = new Key(source, messageId);
+
+    if ((flags & PluginMessageChunk.FLAG_ABORT) != 0) {
+      // Nothing to drop when the message had already been dropped
+      if (pending.containsKey(key)) {
+        drop(key);
+        throw new IOException("Message " + messageId + " was aborted by its sender");
+      }
+
+      return null;
+    }
+
+    Pending message = pending.get(key);
+
+    if (message == null) {
+      // The rest of a message that was already dropped
+      if (index != 0) return null;
+
+      message = new Pending();
+    } else if (index != message.chunks.size()) {
+      drop(key);
+      throw new IOException("Chunk " + index + " of message " + messageId + " arrived out of order");
+    } else if (now - message.lastChunkAt > timeoutNanos) {
+      drop(key);
+      throw new IOException("Message " + messageId + " timed out");
+    }
+
+    if (message.bytes + length > maxMessageBytes) {
+      drop(key);
+      throw new IOException("Message " + messageId + " is bigger than " + maxMessageBytes + " bytes");
+    }
+
+    if (!last && bufferedBytes + length > maxBufferedBytes) {
+      drop(key);
+      throw new IOException("Too many chunked messages pending, message " + messageId + " has been dropped");
+    }
+
+    message.chunks.add(chunk);
+
+    if (!last) {
+      message.bytes += length;
+      message.lastChunkAt = now;
+      pending.putIfAbsent(key, message);
+      bufferedBytes += length;
+      return null;
+    }
+
+    drop(key);
+
+    List<InputStream> streams = new ArrayList<>(message.chunks.size());
+
+    for (byte[] received : message.chunks) {
+      streams.add(new ByteArrayInputStream(received, PluginMessageChunk.HEADER_BYTES, received.length - PluginMessageChunk.HEADER_BYTES));
+    }
+
+    return new SequenceInputStream(Collections.enumeration(streams));
+  }
+
+  synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Drop the messages whose last chunk is older than the timeout
+   *
+   * @return The amount of dropped messages
+   */
+  synchronized int expire(long timeoutNanos) {
+    int count = pending.size();
+    long now = System.nanoTime();
+    sweep(now, timeoutNanos);
+    lastSweep = now;
+    return count - pending.size();
+  }
+
+  private void drop(Key key) {
+    Pending removed = pending.remove(key);
+
+    if (removed != null) {
+      bufferedBytes -= removed.bytes;
+    }
+  }
+
+  private void sweep(long now, long timeoutNanos) {
+    Iterator<Pending> iterator = pending.values().iterator();
+
+    while (iterator.hasNext()) {
+      Pending message = iterator.next();
+
+      if (now - message.lastChunkAt > timeoutNanos) {
+        bufferedBytes -= message.bytes;
+        iterator.remove();
+      }
+    }
+  }
+
+  private record Key(Object source, long messageId) {
+  }
+
+  private static final class Pending {
+    private final List<byte[]> chunks = new ArrayList<>();
+    private long bytes;
+    private long lastChunkAt;
+  }
+}
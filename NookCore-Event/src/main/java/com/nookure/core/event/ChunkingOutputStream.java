@@ -0,0 +1,105 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits what is written to it into {@link PluginMessageChunk}s sent as plugin
+ * messages, so a payload is never held in memory as a whole. A chunk is only
+ * sent once the next one is started, the last one is sent on {@link #close()}.
+ * A stream that fails midway must be {@link #abort() aborted} instead, once
+ * sending a chunk failed the rest of what is written is discarded.
+ */
+final class ChunkingOutputStream extends OutputStream {
+  private final Consumer<byte[]> sender;
+  private final long messageId;
+  private final byte[] chunk;
+  private int size = PluginMessageChunk.HEADER_BYTES;
+  private int index;
+  private boolean closed;
+  private boolean failed;
+
+  ChunkingOutputStream(@NotNull Consumer<byte[]> sender, long messageId, int maxChunkBytes) {
+    this.sender = sender;
+    this.messageId = messageId;
+    this.chunk = new byte[maxChunkBytes];
+  }
+
+  @Override
+  public void write(int value) {
+    if (failed) return;
+    if (size == chunk.length) send(0);
+
+    chunk[size++] = (byte) value;
+  }
+
+  @Override
+  public void write(byte @NotNull [] bytes, int offset, int length) {
+    if (failed) return;
+
+    while (length > 0) {
+      if (size == chunk.length) send(0);
+
+      int count = Math.min(length, chunk.length - size);
+      System.arraycopy(bytes, offset, chunk, size, count);
+      size += count;
+      offset += count;
+      length -= count;
+    }
+  }
+
+  /**
+   * Sends the last chunk
+   */
+  @Override
+  public void close() {
+    if (closed) return;
+
+    closed = true;
+    send(PluginMessageChunk.FLAG_LAST);
+  }
+
+  /**
+   * Gives up on the message, the chunks that were already sent are
+   * followed by an abort chunk so the receiver drops them
+   */
+  void abort() {
+    if (closed) return;
+
+    closed = true;
+
+    // Nothing reached the receiver
+    if (index == 0) return;
+
+    size = PluginMessageChunk.HEADER_BYTES;
+
+    try {
+      send(PluginMessageChunk.FLAG_LAST | PluginMessageChunk.FLAG_ABORT);
+    } catch (RuntimeException ignored) {
+      // The receiver drops the message once it times out
+    }
+  }
+
+  private void send(int flags) {
+    ByteBuffer.wrap(chunk)
+        .putShort(PluginMessageChunk.MAGIC)
+        .putLong(messageId)
+        .putInt(index++)
+        .put((byte) flags);
+
+    try {
+      // The channel may keep the array, so every chunk gets its own
+      sender.accept(Arrays.copyOf(chunk, size));
+    } catch (RuntimeException e) {
+      // The object stream flushes again while unwinding, a later chunk must not follow the missing one
+      failed = true;
+      throw e;
+    }
+
+    size = PluginMessageChunk.HEADER_BYTES;
+  }
+}
@@ -0,0 +1,40 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * An event that can be coalesced with other events of the same type and key.
+ * <p>
+ * When fired through {@link EventManager#fireEventCoalesced(CoalescingEvent)}
+ * the event is held back, any later event of the same type and key replaces
+ * it, and only the latest one is delivered once its window is over.
+ *
+ * @since 1.1.0
+ */
+public interface CoalescingEvent extends Event {
+  /**
+   * Get the key of the event, events of the same type
+   * sharing a key are coalesced together
+   *
+   * @return The key, it must implement equals and hashCode
+   */
+  @NotNull
+  Object getCoalescingKey();
+
+  /**
+   * Get how long the first event of a burst is held back before
+   * the latest one is delivered.
+   * <p>
+   * A zero window holds the events until
+   * {@link EventManager#flushCoalescedEvents()} is called,
+   * usually at the end of the server tick.
+   *
+   * @return The coalescing window
+   */
+  @NotNull
+  default Duration getCoalescingWindow() {
+    return Duration.ZERO;
+  }
+}
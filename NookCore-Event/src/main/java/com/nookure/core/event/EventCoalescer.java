@@ -0,0 +1,168 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Holds back {@link CoalescingEvent}s and delivers the latest one of each key.
+ * <p>
+ * The first event of a key opens a burst, later events of the same key just
+ * replace the pending one. The burst is closed, and its latest event
+ * delivered, when its window elapses or when {@link #flushAll()} is called.
+ * Flushing a burst cancels its timer, and a timer only ever closes the burst
+ * it was started for, so it can't cut a later burst of the same key short.
+ * Once closed, events are delivered straight away.
+ */
+final class EventCoalescer {
+  private final Map<Key, Burst> pending = new ConcurrentHashMap<>();
+  private final LongAdder coalesced = new LongAdder();
+  private final Consumer<Event> sink;
+  private volatile ScheduledExecutorService scheduler;
+  private volatile boolean closed;
+
+  EventCoalescer(@NotNull Consumer<Event> sink) {
+    this.sink = sink;
+  }
+
+  void submit(@NotNull CoalescingEvent event) {
+    if (closed) {
+      sink.accept(event);
+      return;
+    }
+
+    Key key = new Key(event.getClass(), event.getCoalescingKey());
+
+    while (true) {
+      Burst current = pending.get(key);
+
+      if (current == null) {
+        Burst opened = new Burst(event);
+
+        if (pending.putIfAbsent(key, opened) == null) {
+          schedule(key, opened, event.getCoalescingWindow());
+          return;
+        }
+      } else if (current.replace(event)) {
+        coalesced.increment();
+        return;
+      } else {
+        // Being flushed, open a new burst
+        pending.remove(key, current);
+      }
+    }
+  }
+
+  void flushAll() {
+    pending.forEach(this::flush);
+  }
+
+  /**
+   * Deliver the pending events and stop the timers of the windows
+   */
+  synchronized void close() {
+    closed = true;
+    flushAll();
+
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Get the amount of events that have been replaced by a later one
+   *
+   * @return The amount of coalesced events since startup
+   */
+  long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  private void schedule(Key key, Burst burst, Duration window) {
+    if (window.isZero() || window.isNegative()) return;
+
+    try {
+      burst.timer = scheduler().schedule(() -> flush(key, burst), window.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // Closed meanwhile
+      flush(key, burst);
+    }
+  }
+
+  private void flush(Key key, Burst burst) {
+    CoalescingEvent event = burst.close();
+    pending.remove(key, burst);
+
+    // Already flushed
+    if (event == null) return;
+
+    ScheduledFuture<?> timer = burst.timer;
+
+    if (timer != null) {
+      timer.cancel(false);
+    }
+
+    sink.accept(event);
+  }
+
+  private ScheduledExecutorService scheduler() {
+    ScheduledExecutorService current = scheduler;
+
+    if (current != null) return current;
+
+    synchronized (this) {
+      if (scheduler == null) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(EventManager.daemonThreadFactory("NookCore Event Coalescer #"));
+      }
+
+      return scheduler;
+    }
+  }
+
+  private record Key(Class<?> eventClass, Object coalescingKey) {
+  }
+
+  /**
+   * The pending event of a key, from its first event until it is flushed
+   */
+  private static final class Burst {
+    private CoalescingEvent event;
+    private boolean closed;
+    private volatile ScheduledFuture<?> timer;
+
+    private Burst(CoalescingEvent event) {
+      this.event = event;
+    }
+
+    /**
+     * @return false if the burst has already been flushed
+     */
+    synchronized boolean replace(CoalescingEvent event) {
+      if (closed) return false;
+
+      this.event = event;
+      return true;
+    }
+
+    /**
+     * @return The latest event, or null if the burst had already been flushed
+     */
+    synchronized CoalescingEvent close() {
+      if (closed) return null;
+
+      closed = true;
+      CoalescingEvent latest = event;
+      event = null;
+      return latest;
+    }
+  }
+}
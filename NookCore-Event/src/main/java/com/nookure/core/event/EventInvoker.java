@@ -0,0 +1,25 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A compiled call site for a method annotated with {@link NookSubscribe}.
+ * <p>
+ * Invokers are created once when a listener is registered, so firing an
+ * event costs an interface call instead of a reflective
+ * {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+ *
+ * @see EventVector#invoker()
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface EventInvoker {
+  /**
+   * Invoke the handler
+   *
+   * @param listener The listener instance that declares the handler
+   * @param event    The event to pass to the handler
+   * @throws Throwable Whatever the handler throws, unwrapped
+   */
+  void invoke(@NotNull Object listener, @NotNull Event event) throws Throwable;
+}
@@ -0,0 +1,92 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+
+/**
+ * Creates {@link EventInvoker} instances for handler methods.
+ * <p>
+ * A hidden class implementing {@link EventInvoker} is spun through the
+ * {@link LambdaMetafactory} whenever the listener class grants us full
+ * access to it. When that is not possible (static handlers, or a listener
+ * living in a module we can't fully access) the invoker falls back to a
+ * pre-adapted {@link MethodHandle}, which is still much cheaper than
+ * reflection.
+ */
+final class EventInvokers {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType FACTORY_TYPE = MethodType.methodType(EventInvoker.class);
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Event.class);
+
+  private EventInvokers() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Create an invoker for the given handler method
+   *
+   * @param method The handler method, it must take exactly one {@link Event} parameter
+   * @return The invoker
+   * @throws EventHandlerException If the method can't be accessed
+   */
+  @NotNull
+  static EventInvoker create(@NotNull Method method) {
+    Objects.requireNonNull(method, "Method cannot be null");
+
+    MethodHandles.Lookup lookup = lookupFor(method);
+    MethodHandle handle;
+
+    try {
+      handle = lookup.unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw new EventHandlerException("Could not access event handler " + method, e);
+    }
+
+    boolean spinnable = lookup.lookupClass() == method.getDeclaringClass() && lookup.hasFullPrivilegeAccess();
+
+    if (spinnable && !Modifier.isStatic(method.getModifiers())) {
+      try {
+        CallSite site = LambdaMetafactory.metafactory(
+            lookup,
+            "invoke",
+            FACTORY_TYPE,
+            INVOKER_TYPE,
+            handle,
+            MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0])
+        );
+
+        return (EventInvoker) site.getTarget().invokeExact();
+      } catch (Throwable ignored) {
+        // Fall back to the method handle below
+      }
+    }
+
+    return fromHandle(handle, Modifier.isStatic(method.getModifiers()));
+  }
+
+  private static EventInvoker fromHandle(MethodHandle handle, boolean isStatic) {
+    MethodHandle target = isStatic ? MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+    MethodHandle adapted = target.asType(INVOKER_TYPE);
+
+    return (listener, event) -> {
+      adapted.invokeExact(listener, event);
+    };
+  }
+
+  private static MethodHandles.Lookup lookupFor(Method method) {
+    try {
+      return MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+    } catch (IllegalAccessException | SecurityException e) {
+      method.setAccessible(true);
+      return LOOKUP;
+    }
+  }
+}
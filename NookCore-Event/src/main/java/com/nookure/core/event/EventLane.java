@@ -0,0 +1,31 @@
+package com.nookure.core.event;
+
+/**
+ * The lane an event handler runs on when the event is fired through
+ * {@link EventManager#fireEvent(Event)}.
+ * <p>
+ * Handlers always run in priority order, whatever their lane is, a handler
+ * only starts once the previous one has finished.
+ *
+ * @see NookSubscribe#lane()
+ * @since 1.1.0
+ */
+public enum EventLane {
+  /**
+   * The handler runs on the thread that completed the previous handler,
+   * or on the firing thread when it is the first one of the chain.
+   * Use it for cheap handlers that don't block
+   */
+  SYNC,
+  /**
+   * The handler runs on the event dispatch executor, see
+   * {@link com.nookure.core.event.annotation.EventDispatchExecutor}
+   */
+  ASYNC,
+  /**
+   * The handler runs on a virtual thread, use it for handlers that block
+   * on I/O. On runtimes without virtual threads the handler runs on the
+   * {@link #ASYNC} lane
+   */
+  VIRTUAL_THREAD
+}
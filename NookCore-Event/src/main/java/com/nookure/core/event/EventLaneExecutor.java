@@ -0,0 +1,81 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded view over the executor backing an {@link EventLane}.
+ * <p>
+ * At most {@code capacity} tasks can be queued or running at once, any
+ * task over that limit, or refused by the underlying executor, is rejected
+ * with a {@link RejectedExecutionException} and counted. The task never
+ * runs on the submitting thread, which is usually the server tick. Once
+ * closed, every task is rejected.
+ */
+final class EventLaneExecutor implements Executor {
+  private final EventLane lane;
+  private final Executor delegate;
+  private final int capacity;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private volatile boolean closed;
+
+  EventLaneExecutor(@NotNull EventLane lane, @NotNull Executor delegate, int capacity) {
+    this.lane = lane;
+    this.delegate = delegate;
+    this.capacity = capacity;
+  }
+
+  @Override
+  public void execute(@NotNull Runnable task) {
+    submitted.increment();
+
+    if (closed) {
+      rejected.increment();
+      throw new RejectedExecutionException("The event manager is closed");
+    }
+
+    if (inFlight.incrementAndGet() > capacity) {
+      inFlight.decrementAndGet();
+      rejected.increment();
+      throw new RejectedExecutionException("The " + lane + " event lane is full");
+    }
+
+    try {
+      delegate.execute(() -> {
+        try {
+          task.run();
+        } finally {
+          inFlight.decrementAndGet();
+          completed.increment();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlight.decrementAndGet();
+      rejected.increment();
+      throw e;
+    }
+  }
+
+  void close() {
+    closed = true;
+  }
+
+  @NotNull
+  EventLaneStatistics statistics() {
+    return new EventLaneStatistics(
+        lane,
+        capacity,
+        inFlight.get(),
+        submitted.sum(),
+        completed.sum(),
+        rejected.sum()
+    );
+  }
+}
@@ -0,0 +1,24 @@
+package com.nookure.core.event;
+
+/**
+ * A snapshot of the activity of an {@link EventLane}.
+ *
+ * @param lane      The lane
+ * @param capacity  The maximum amount of handler batches the lane accepts at once
+ * @param inFlight  The amount of handler batches queued or running right now
+ * @param submitted The amount of handler batches submitted since startup
+ * @param completed The amount of handler batches that have finished since startup
+ * @param rejected  The amount of handler batches rejected because the lane was
+ *                  full or shut down, the event future completes exceptionally
+ * @see EventManager#getLaneStatistics(EventLane)
+ * @since 1.1.0
+ */
+public record EventLaneStatistics(
+    EventLane lane,
+    int capacity,
+    int inFlight,
+    long submitted,
+    long completed,
+    long rejected
+) {
+}
@@ -0,0 +1,54 @@
+package com.nookure.core.event;
+
+import com.nookure.core.event.index.EventListenerIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+
+/**
+ * Finds the generated {@link EventListenerIndex} of listener classes.
+ * <p>
+ * The result is cached per class, including the absence of an index,
+ * so a listener class is only looked up once.
+ */
+final class EventListenerIndexes {
+  private static final ClassValue<Optional<EventListenerIndex>> INDEXES = new ClassValue<>() {
+    @Override
+    protected Optional<EventListenerIndex> computeValue(@NotNull Class<?> type) {
+      return load(type);
+    }
+  };
+
+  private EventListenerIndexes() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Get the index generated for a listener class
+   *
+   * @param listenerClass The listener class
+   * @return The index, or an empty optional if the class wasn't indexed
+   */
+  @NotNull
+  static Optional<EventListenerIndex> find(@NotNull Class<?> listenerClass) {
+    return INDEXES.get(listenerClass);
+  }
+
+  private static Optional<EventListenerIndex> load(Class<?> listenerClass) {
+    ClassLoader classLoader = listenerClass.getClassLoader();
+
+    if (classLoader == null) return Optional.empty();
+
+    try {
+      Class<?> indexClass = Class.forName(listenerClass.getName() + EventListenerIndex.SUFFIX, true, classLoader);
+
+      if (!EventListenerIndex.class.isAssignableFrom(indexClass)) return Optional.empty();
+
+      return Optional.of((EventListenerIndex) indexClass.getConstructor().newInstance());
+    } catch (ClassNotFoundException | LinkageError e) {
+      return Optional.empty();
+    } catch (ReflectiveOperationException e) {
+      throw new EventHandlerException("Could not load the listener index of " + listenerClass.getName(), e);
+    }
+  }
+}
@@ -3,24 +3,79 @@ package com.nookure.core.event;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Singleton;
+import com.nookure.core.annotation.PluginDebug;
+import com.nookure.core.event.annotation.EventDispatchExecutor;
+import com.nookure.core.event.index.EventListenerIndex;
+import com.nookure.core.event.index.IndexedHandler;
 import com.nookure.core.logger.Logger;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Singleton
-public final class EventManager {
+public final class EventManager implements AutoCloseable {
+  private static final int LANE_CAPACITY = 1024;
+  private static final int DISPATCH_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+  private static final long SLOW_REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+  private static final long SHUTDOWN_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
   @Inject
   private Injector injector;
   @Inject
   private Logger logger;
-  private final Map<Class<? extends Event>, List<EventVector>> listeners = new ConcurrentHashMap<>();
+  @Inject
+  @PluginDebug
+  private AtomicBoolean debug;
+  @Inject(optional = true)
+  @EventDispatchExecutor
+  private Executor dispatchExecutor;
+  private volatile EventLaneExecutor[] lanes;
+  private volatile ForkJoinPool parallelPool;
+  // The executors created by the manager itself, an injected one is never shut down
+  private final List<ExecutorService> ownedExecutors = new ArrayList<>();
+  private volatile boolean closed;
+  /*
+   * Every value is an immutable chain, writers replace it through the
+   * atomic compute methods of the map so readers never see a partial update.
+   */
+  private final Map<Class<? extends Event>, HandlerChain> listeners = new ConcurrentHashMap<>();
+  /*
+   * Handlers resolved across the whole type hierarchy of each fired event
+   * class. The table is replaced, never cleared, after every registration
+   * change, so a resolution racing with a writer can only pollute a table
+   * that is no longer reachable.
+   */
+  private volatile Map<Class<?>, HandlerChain> resolved = new ConcurrentHashMap<>();
+  private final Map<Object, List<ListenerSubscription>> subscriptionsByListener = new ConcurrentHashMap<>();
+  private final Set<ListenerSubscription> weakSubscriptions = ConcurrentHashMap.newKeySet();
+  private final EventCoalescer coalescer = new EventCoalescer(this::fireCoalesced);
+  private final Map<Class<?>, EventTypeMetrics> eventTypeMetrics = new ConcurrentHashMap<>();
+  private volatile boolean instrumentation = true;
+  private volatile long slowHandlerThreshold = TimeUnit.MILLISECONDS.toNanos(10);
 
   /**
    * Register a listener class
@@ -28,48 +83,160 @@ public final class EventManager {
    * in order to work, otherwise it will be ignored
    *
    * @param clazz Listener class to register
+   * @return The subscription of the listener
    */
-  private void registerListener(Class<?> clazz) {
-    registerListener(injector.getInstance(clazz));
+  private EventSubscription registerListener(Class<?> clazz) {
+    return registerListener(injector.getInstance(clazz));
   }
 
   /**
    * Unregister a listener class
+   * Prefer {@link EventSubscription#unregister()}, which only touches
+   * the event types the listener is subscribed to
    *
    * @param listener Listener class to unregister
    */
   public void unregisterListener(Object listener) {
-    listeners.values().forEach(eventVectors ->
-        eventVectors.removeIf(eventVector -> eventVector.listener().equals(listener))
-    );
+    List<ListenerSubscription> subscriptions = subscriptionsByListener.remove(listener);
+
+    if (subscriptions != null) {
+      subscriptions.forEach(ListenerSubscription::unregister);
+    }
+
+    for (ListenerSubscription subscription : weakSubscriptions) {
+      if (listener.equals(subscription.getListener())) {
+        subscription.unregister();
+      }
+    }
   }
 
   /**
    * Unregister all listeners
    */
   public void unregisterAllListeners() {
+    subscriptionsByListener.values().forEach(subscriptions -> subscriptions.forEach(ListenerSubscription::deactivate));
+    weakSubscriptions.forEach(ListenerSubscription::deactivate);
+    subscriptionsByListener.clear();
+    weakSubscriptions.clear();
     listeners.clear();
+    invalidateResolved();
   }
 
   /**
    * Register a listener object
    * The class must have methods annotated with {@link NookSubscribe}
    * in order to work, otherwise it will be ignored
+   * <p>
+   * If the listener class has been indexed at compile time, see
+   * {@link EventListenerIndex}, its handlers are taken from the index,
+   * otherwise they are found through reflection.
    *
    * @param listener Listener object to register
+   * @return The subscription of the listener, use it to unregister it
    */
-  public void registerListener(@NotNull Object listener) {
+  @SuppressWarnings("UnusedReturnValue")
+  public EventSubscription registerListener(@NotNull Object listener) {
     Objects.requireNonNull(listener, "Listener cannot be null");
 
-    Class<?> clazz = listener.getClass();
+    ListenerSubscription subscription = ListenerSubscription.strong(this, listener);
+    subscribe(listener, subscription);
+    subscriptionsByListener.merge(listener, List.of(subscription), EventManager::concat);
+
+    return subscription;
+  }
+
+  /**
+   * Register a listener object through a weak reference
+   * The class must have methods annotated with {@link NookSubscribe}
+   * in order to work, otherwise it will be ignored
+   * <p>
+   * The event manager won't keep the listener alive, once it has been
+   * garbage collected its handlers are removed the next time one of
+   * its events is fired.
+   *
+   * @param listener Listener object to register
+   * @return The subscription of the listener, use it to unregister it
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  public EventSubscription registerWeakListener(@NotNull Object listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null");
+
+    ListenerSubscription subscription = ListenerSubscription.weak(this, listener);
+    subscribe(listener, subscription);
+    weakSubscriptions.add(subscription);
+
+    return subscription;
+  }
+
+  private void subscribe(Object listener, ListenerSubscription subscription) {
+    Optional<EventListenerIndex> index = EventListenerIndexes.find(listener.getClass());
+    List<EventVector> eventVectors = index
+        .map(found -> indexedHandlers(listener.getClass(), subscription, found))
+        .orElseGet(() -> reflectedHandlers(listener.getClass(), subscription));
+
+    eventVectors.forEach(eventVector -> register(subscription, eventVector));
+    invalidateResolved();
+  }
+
+  /**
+   * Remove the handlers of a subscription, only
+   * called once the subscription has been deactivated
+   *
+   * @param subscription The subscription to remove
+   */
+  void unsubscribe(@NotNull ListenerSubscription subscription) {
+    for (Class<? extends Event> eventClass : subscription.eventClasses()) {
+      listeners.computeIfPresent(eventClass, (key, chain) -> {
+        HandlerChain updated = chain.without(eventVector -> eventVector.subscription() == subscription);
+        return updated.isEmpty() ? null : updated;
+      });
+    }
+
+    if (subscription.isWeak()) {
+      weakSubscriptions.remove(subscription);
+    } else {
+      Object listener = subscription.getListener();
+      subscriptionsByListener.computeIfPresent(listener, (key, subscriptions) -> {
+        List<ListenerSubscription> updated = subscriptions.stream()
+            .filter(other -> other != subscription)
+            .toList();
+        return updated.isEmpty() ? null : updated;
+      });
+    }
+
+    invalidateResolved();
+  }
+
+  private List<EventVector> indexedHandlers(Class<?> clazz, EventSubscription subscription, EventListenerIndex index) {
+    List<EventVector> eventVectors = new ArrayList<>();
+
+    // The index carries everything, only the handlers generated code can't call are looked up
+    for (IndexedHandler handler : index.handlers()) {
+      EventInvoker invoker = handler.invoker();
+
+      if (invoker == null) {
+        try {
+          invoker = EventInvokers.create(clazz.getDeclaredMethod(handler.methodName(), handler.eventType()));
+        } catch (NoSuchMethodException e) {
+          logger.warning("The listener index of " + clazz.getName() + " is out of date, falling back to reflection");
+          return reflectedHandlers(clazz, subscription);
+        }
+      }
+
+      eventVectors.add(new EventVector(clazz, handler, subscription, invoker));
+    }
+
+    return eventVectors;
+  }
+
+  private List<EventVector> reflectedHandlers(Class<?> clazz, EventSubscription subscription) {
+    List<EventVector> eventVectors = new ArrayList<>();
 
     for (Method method : clazz.getDeclaredMethods()) {
       if (!method.isAnnotationPresent(NookSubscribe.class)) {
         continue;
       }
 
-      logger.debug("Registering event handler " + method.getName() + " in " + clazz.getName());
-
       NookSubscribe nookSubscribe = method.getAnnotation(NookSubscribe.class);
 
       Class<?>[] parameterTypes = method.getParameterTypes();
@@ -84,52 +251,618 @@ public final class EventManager {
         throw new EventHandlerException("Event handler method must have a parameter that extends Event");
       }
 
-      @SuppressWarnings({"unchecked"})
-      Class<? extends Event> eventClass = (Class<? extends Event>) parameterType;
+      eventVectors.add(new EventVector(method, subscription, nookSubscribe, EventInvokers.create(method)));
+    }
 
-      if (!listeners.containsKey(eventClass)) {
-        listeners.put(eventClass, new ArrayList<>());
-      }
+    return eventVectors;
+  }
 
-      listeners.get(eventClass).add(new EventVector(method, listener, nookSubscribe));
+  private void register(ListenerSubscription subscription, EventVector eventVector) {
+    if (debug.get()) {
+      logger.debug("Registering event handler " + eventVector.methodName() + " in " + eventVector.listenerClass().getName());
     }
+
+    Class<? extends Event> eventClass = eventVector.eventType();
+
+    subscription.addEventClass(eventClass);
+    listeners.compute(eventClass, (key, chain) -> (chain == null ? HandlerChain.EMPTY : chain).with(eventVector));
+  }
+
+  private static <E> List<E> concat(List<E> first, List<E> second) {
+    List<E> joined = new ArrayList<>(first);
+    joined.addAll(second);
+    return List.copyOf(joined);
   }
 
   /**
    * Call an event
    * This will call all the methods annotated with {@link NookSubscribe}
-   * that are listening to the event
+   * that are listening to the event, its superclasses or its interfaces.
+   * <p>
+   * Every handler runs on its {@link NookSubscribe#lane()}, one after
+   * the other in priority order. If a lane is full or closed the returned
+   * future completes exceptionally with a {@link RejectedExecutionException}.
    *
    * @param event Event to call
    */
   @SuppressWarnings("UnusedReturnValue")
   public <T extends Event> CompletableFuture<T> fireEvent(@NotNull T event) {
     Objects.requireNonNull(event, "Event cannot be null");
-    logger.debug("Firing event " + event.getClass().getName());
 
-    List<EventVector> eventVectors = listeners.get(event.getClass());
+    HandlerChain chain = resolve(event.getClass());
+
+    if (chain.isEmpty()) return CompletableFuture.completedFuture(event);
+
+    recordFired(event);
+
+    if (debug.get()) {
+      logger.debug("Firing event " + event.getClass().getName());
+    }
+
+    EventVector[] handlers = chain.handlers();
+    CompletableFuture<Void> stage = CompletableFuture.completedFuture(null);
+    int from = 0;
+
+    while (from < handlers.length) {
+      EventLane lane = handlers[from].lane();
+      int to = from + 1;
+
+      while (to < handlers.length && handlers[to].lane() == lane) {
+        to++;
+      }
 
-    if (eventVectors == null) return CompletableFuture.completedFuture(event);
-    if (eventVectors.isEmpty()) return CompletableFuture.completedFuture(event);
+      int start = from;
+      int end = to;
+      stage = stage.thenRunAsync(() -> dispatch(chain, start, end, event), laneExecutor(lane));
+      from = to;
+    }
 
-    eventVectors.sort((o1, o2) -> {
-      NookSubscribe nookSubscribe1 = o1.nookSubscribe();
-      NookSubscribe nookSubscribe2 = o2.nookSubscribe();
+    return stage.thenApply(ignored -> event);
+  }
 
-      return Integer.compare(nookSubscribe1.priority().getSlot(), nookSubscribe2.priority().getSlot());
+  /**
+   * Call an event on the current thread
+   * This will call all the methods annotated with {@link NookSubscribe}
+   * that are listening to the event, its superclasses or its interfaces,
+   * and return once all of them have run, whatever their lane is.
+   * <p>
+   * Nothing is allocated on this path, apart from the tasks of
+   * {@link NookSubscribe#parallel()} handler groups, and an event without
+   * listeners returns straight away, so it is safe to use from the server tick.
+   *
+   * @param event Event to call
+   * @return The same event, after every handler has seen it
+   * @throws EventHandlerException If a handler throws, the remaining handlers are not called
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  public <T extends Event> T fireEventSync(@NotNull T event) {
+    Objects.requireNonNull(event, "Event cannot be null");
+
+    HandlerChain chain = resolve(event.getClass());
+
+    if (chain.isEmpty()) return event;
+
+    recordFired(event);
+
+    if (debug.get()) {
+      logger.debug("Firing event " + event.getClass().getName() + " synchronously");
+    }
+
+    dispatch(chain, 0, chain.handlers().length, event);
+    return event;
+  }
+
+  /**
+   * Call a pooled event on the current thread
+   * The event is taken from the pool, filled by the initializer, handed to
+   * every handler like {@link #fireEventSync(Event)} does, and given back
+   * to the pool once the last handler has run.
+   * <p>
+   * Handlers must not keep a reference to the event, see {@link ReusableEvent}.
+   * Callers that need to read the event after the dispatch can do the same
+   * with {@link EventPool#acquire()}, {@link #fireEventSync(Event)} and
+   * {@link EventPool#release(ReusableEvent)}.
+   *
+   * @param pool        The pool of the event type
+   * @param initializer Fills the event before it is fired
+   * @throws EventHandlerException If a handler throws, the event is released anyway
+   */
+  public <T extends ReusableEvent> void fireEventPooled(@NotNull EventPool<T> pool, @NotNull Consumer<? super T> initializer) {
+    Objects.requireNonNull(pool, "Pool cannot be null");
+    Objects.requireNonNull(initializer, "Initializer cannot be null");
+
+    T event = pool.acquire();
+
+    try {
+      initializer.accept(event);
+      fireEventSync(event);
+    } finally {
+      pool.release(event);
+    }
+  }
+
+  /**
+   * Call an event, coalescing it with the other events of the same type
+   * and {@link CoalescingEvent#getCoalescingKey()} fired during its
+   * {@link CoalescingEvent#getCoalescingWindow()}.
+   * <p>
+   * Only the latest event of the burst is delivered, through
+   * {@link #fireEvent(Event)}, once the window is over or, for events
+   * without a window, on the next {@link #flushCoalescedEvents()}.
+   * Events without listeners are dropped straight away.
+   *
+   * @param event Event to call
+   */
+  public void fireEventCoalesced(@NotNull CoalescingEvent event) {
+    Objects.requireNonNull(event, "Event cannot be null");
+
+    if (resolve(event.getClass()).isEmpty()) return;
+
+    coalescer.submit(event);
+  }
+
+  /**
+   * Deliver the latest event of a burst, nobody waits on its future so failures are logged here
+   */
+  private void fireCoalesced(Event event) {
+    fireEvent(event).whenComplete((fired, throwable) -> {
+      if (throwable == null) return;
+
+      Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+          ? throwable.getCause()
+          : throwable;
+
+      logger.severe("Error while firing the coalesced event %s", event.getClass().getName());
+      logger.severe(cause);
     });
+  }
 
-    return CompletableFuture.supplyAsync(() -> {
-      eventVectors.forEach(eventVector -> {
-        try {
-          eventVector.method().invoke(eventVector.listener(), event);
-        } catch (Exception e) {
-          throw new EventHandlerException("Could not invoke event handler", e);
+  /**
+   * Deliver every event held back by {@link #fireEventCoalesced(CoalescingEvent)},
+   * call it at the end of every server tick when using per tick coalescing
+   */
+  public void flushCoalescedEvents() {
+    coalescer.flushAll();
+  }
+
+  /**
+   * Get the amount of events that were replaced by a later
+   * event of the same key and never delivered
+   *
+   * @return The amount of coalesced events since startup
+   */
+  public long getCoalescedEventCount() {
+    return coalescer.coalescedCount();
+  }
+
+  /**
+   * Enable or disable the handler timings, they are enabled by default.
+   * Event type counters are always recorded
+   *
+   * @param enabled true to time every handler invocation
+   */
+  public void setInstrumentationEnabled(boolean enabled) {
+    this.instrumentation = enabled;
+  }
+
+  /**
+   * Set how long a handler can take before it is reported as slow
+   * through the {@link Logger}, a handler is reported at most once
+   * every ten seconds. Defaults to 10 milliseconds
+   *
+   * @param threshold The threshold, zero or negative to disable the reports
+   */
+  public void setSlowHandlerThreshold(@NotNull Duration threshold) {
+    Objects.requireNonNull(threshold, "Threshold cannot be null");
+    this.slowHandlerThreshold = threshold.isZero() || threshold.isNegative() ? Long.MAX_VALUE : threshold.toNanos();
+  }
+
+  /**
+   * Get the timings of every registered handler
+   *
+   * @return A snapshot of the handler statistics
+   */
+  @NotNull
+  public List<HandlerStatistics> getHandlerStatistics() {
+    List<HandlerStatistics> statistics = new ArrayList<>();
+
+    for (HandlerChain chain : listeners.values()) {
+      for (EventVector eventVector : chain.handlers()) {
+        statistics.add(eventVector.metrics().snapshot(eventVector));
+      }
+    }
+
+    return statistics;
+  }
+
+  /**
+   * Get how often every event type has been dispatched
+   *
+   * @return A snapshot of the event type statistics
+   */
+  @NotNull
+  public List<EventTypeStatistics> getEventTypeStatistics() {
+    List<EventTypeStatistics> statistics = new ArrayList<>();
+    eventTypeMetrics.forEach((eventType, metrics) -> statistics.add(metrics.snapshot(eventType)));
+    return statistics;
+  }
+
+  /**
+   * Reset the handler timings and the event type counters
+   */
+  public void resetStatistics() {
+    for (HandlerChain chain : listeners.values()) {
+      for (EventVector eventVector : chain.handlers()) {
+        eventVector.metrics().reset();
+      }
+    }
+
+    eventTypeMetrics.values().forEach(EventTypeMetrics::reset);
+  }
+
+  private void recordFired(Event event) {
+    EventTypeMetrics metrics = eventTypeMetrics.get(event.getClass());
+
+    if (metrics == null) {
+      metrics = eventTypeMetrics.computeIfAbsent(event.getClass(), key -> new EventTypeMetrics());
+    }
+
+    metrics.record();
+  }
+
+  private void recordInvocation(EventVector eventVector, Event event, long nanos) {
+    eventVector.metrics().record(nanos);
+
+    if (nanos >= slowHandlerThreshold && eventVector.metrics().tryReportSlow(System.nanoTime(), SLOW_REPORT_INTERVAL)) {
+      logger.warning(
+          "Event handler %s#%s took %.2f ms to handle %s",
+          eventVector.listenerClass().getName(),
+          eventVector.methodName(),
+          nanos / 1_000_000D,
+          event.getClass().getName()
+      );
+    }
+  }
+
+  /**
+   * Get the activity of an event lane
+   *
+   * @param lane The lane
+   * @return A snapshot of the lane statistics
+   */
+  @NotNull
+  public EventLaneStatistics getLaneStatistics(@NotNull EventLane lane) {
+    Objects.requireNonNull(lane, "Lane cannot be null");
+    return laneExecutor(lane).statistics();
+  }
+
+  private void dispatch(HandlerChain chain, int from, int to, Event event) {
+    EventVector[] handlers = chain.handlers();
+    Cancellable cancellable = event instanceof Cancellable ? (Cancellable) event : null;
+    boolean timed = instrumentation;
+
+    for (int i = from; i < to; i++) {
+      boolean cancelled = cancellable != null && cancellable.isCancelled();
+
+      if (cancelled) {
+        i = chain.nextReceivingCancelled(i);
+
+        if (i >= to) break;
+      }
+
+      int groupEnd = Math.min(chain.parallelGroupEnd(i), to);
+
+      if (groupEnd - i > 1) {
+        dispatchParallel(handlers, i, groupEnd, event, cancelled, timed);
+        i = groupEnd - 1;
+        continue;
+      }
+
+      invoke(handlers[i], event, timed);
+    }
+  }
+
+  /**
+   * Run a group of parallel handlers, the first one on the current
+   * thread and the rest on the parallel pool, and wait for all of them
+   */
+  private void dispatchParallel(EventVector[] handlers, int from, int to, Event event, boolean cancelled, boolean timed) {
+    ForkJoinPool pool = parallelPool();
+
+    if (pool == null) {
+      // Closed, run the group on the current thread
+      for (int i = from; i < to; i++) {
+        if (cancelled && handlers[i].ignoreCancelled()) continue;
+
+        invoke(handlers[i], event, timed);
+      }
+
+      return;
+    }
+
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(to - from - 1);
+
+    for (int i = from + 1; i < to; i++) {
+      EventVector eventVector = handlers[i];
+
+      if (cancelled && eventVector.ignoreCancelled()) continue;
+
+      tasks.add(pool.submit(() -> invoke(eventVector, event, timed)));
+    }
+
+    RuntimeException failure = null;
+
+    if (!cancelled || !handlers[from].ignoreCancelled()) {
+      try {
+        invoke(handlers[from], event, timed);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+    }
+
+    for (ForkJoinTask<?> task : tasks) {
+      try {
+        task.join();
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
         }
-      });
+      }
+    }
 
-      return event;
-    });
+    if (failure != null) throw failure;
+  }
+
+  private void invoke(EventVector eventVector, Event event, boolean timed) {
+    Object listener = eventVector.listener();
+
+    if (listener == null) {
+      // A weak listener has been garbage collected, prune it
+      eventVector.subscription().unregister();
+      return;
+    }
+
+    long start = timed ? System.nanoTime() : 0L;
+
+    try {
+      eventVector.invoker().invoke(listener, event);
+    } catch (Throwable e) {
+      throw new EventHandlerException("Could not invoke event handler", e);
+    } finally {
+      if (timed) {
+        recordInvocation(eventVector, event, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Get the handlers that must receive an event of the given class,
+   * computing and caching them on the first call
+   *
+   * @param eventClass The concrete event class
+   * @return The handlers registered for the class and all its supertypes
+   */
+  private HandlerChain resolve(Class<?> eventClass) {
+    Map<Class<?>, HandlerChain> table = resolved;
+    HandlerChain chain = table.get(eventClass);
+
+    if (chain != null) return chain;
+
+    return table.computeIfAbsent(eventClass, this::collectHandlers);
+  }
+
+  private HandlerChain collectHandlers(Class<?> eventClass) {
+    List<HandlerChain> chains = new ArrayList<>();
+
+    for (Class<?> type : eventTypesOf(eventClass)) {
+      HandlerChain chain = listeners.get(type);
+
+      if (chain != null) {
+        chains.add(chain);
+      }
+    }
+
+    return HandlerChain.merge(chains);
+  }
+
+  /**
+   * Walk the type hierarchy of an event class, the class itself first,
+   * then its superclasses and interfaces from the most specific one
+   *
+   * @param eventClass The concrete event class
+   * @return Every supertype of the class that is an {@link Event}
+   */
+  private static Set<Class<?>> eventTypesOf(Class<?> eventClass) {
+    Set<Class<?>> types = new LinkedHashSet<>();
+    Deque<Class<?>> pending = new ArrayDeque<>();
+    pending.add(eventClass);
+
+    while (!pending.isEmpty()) {
+      Class<?> type = pending.poll();
+
+      if (!Event.class.isAssignableFrom(type) || !types.add(type)) {
+        continue;
+      }
+
+      if (type.getSuperclass() != null) {
+        pending.add(type.getSuperclass());
+      }
+
+      pending.addAll(List.of(type.getInterfaces()));
+    }
+
+    return types;
+  }
+
+  private EventLaneExecutor laneExecutor(EventLane lane) {
+    EventLaneExecutor[] current = lanes;
+
+    if (current == null) {
+      current = createLanes();
+    }
+
+    return current[lane.ordinal()];
+  }
+
+  private ForkJoinPool parallelPool() {
+    ForkJoinPool current = parallelPool;
+
+    if (current != null) return current;
+
+    synchronized (this) {
+      if (closed) return null;
+
+      if (parallelPool == null) {
+        AtomicInteger counter = new AtomicInteger();
+
+        parallelPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+          ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("NookCore Event Parallel #" + counter.incrementAndGet());
+          return thread;
+        }, null, false);
+      }
+
+      return parallelPool;
+    }
+  }
+
+  private synchronized EventLaneExecutor[] createLanes() {
+    if (lanes != null) return lanes;
+
+    Executor async = dispatchExecutor;
+    Executor virtual = null;
+
+    if (closed) {
+      // Don't start threads that nobody would shut down, the lanes are closed below
+      async = Runnable::run;
+    } else {
+      if (async == null) {
+        ExecutorService pool = Executors.newFixedThreadPool(DISPATCH_THREADS, daemonThreadFactory("NookCore Event Dispatcher #"));
+        ownedExecutors.add(pool);
+        async = pool;
+      }
+
+      virtual = virtualThreadExecutor();
+
+      if (virtual != null) {
+        ownedExecutors.add((ExecutorService) virtual);
+      }
+    }
+
+    EventLaneExecutor[] created = new EventLaneExecutor[EventLane.values().length];
+    created[EventLane.SYNC.ordinal()] = new EventLaneExecutor(EventLane.SYNC, Runnable::run, Integer.MAX_VALUE);
+    created[EventLane.ASYNC.ordinal()] = new EventLaneExecutor(EventLane.ASYNC, async, LANE_CAPACITY);
+    created[EventLane.VIRTUAL_THREAD.ordinal()] = new EventLaneExecutor(
+        EventLane.VIRTUAL_THREAD,
+        virtual != null ? virtual : async,
+        LANE_CAPACITY
+    );
+
+    if (closed) {
+      closeLanes(created);
+    }
+
+    lanes = created;
+    return created;
+  }
+
+  private static void closeLanes(EventLaneExecutor[] lanes) {
+    lanes[EventLane.ASYNC.ordinal()].close();
+    lanes[EventLane.VIRTUAL_THREAD.ordinal()].close();
+  }
+
+  /**
+   * Stop the event manager, call it when the plugin is disabled.
+   * <p>
+   * The pending coalesced events are delivered, the {@link EventLane#ASYNC}
+   * and {@link EventLane#VIRTUAL_THREAD} lanes stop taking events and the
+   * threads started by the manager are shut down, waiting a few seconds for
+   * the running handlers. Events fired after that on those lanes complete
+   * exceptionally with a {@link RejectedExecutionException}, while
+   * {@link #fireEventSync(Event)} and {@link EventLane#SYNC} handlers keep
+   * working. An {@link EventDispatchExecutor} bound by the plugin is not
+   * shut down, it belongs to the plugin.
+   *
+   * @since 1.1.0
+   */
+  @Override
+  public void close() {
+    List<ExecutorService> executors;
+
+    synchronized (this) {
+      if (closed) return;
+
+      // Delivered while the lanes still take events
+      coalescer.close();
+      closed = true;
+
+      if (lanes != null) {
+        closeLanes(lanes);
+      }
+
+      executors = new ArrayList<>(ownedExecutors);
+      ownedExecutors.clear();
+
+      if (parallelPool != null) {
+        executors.add(parallelPool);
+      }
+    }
+
+    for (ExecutorService executor : executors) {
+      executor.shutdown();
+    }
+
+    long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT;
+
+    try {
+      for (ExecutorService executor : executors) {
+        if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+          logger.warning("Some event handlers are still running after the event manager was closed");
+          break;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Check whether {@link #close()} has been called
+   *
+   * @return true if the event manager is closed
+   * @since 1.1.0
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Create a virtual thread per task executor when the runtime supports it,
+   * it is looked up reflectively because we still target Java 17
+   *
+   * @return The executor, or null if virtual threads are not available
+   */
+  private static Executor virtualThreadExecutor() {
+    try {
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  static ThreadFactory daemonThreadFactory(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
 
+  private void invalidateResolved() {
+    resolved = new ConcurrentHashMap<>();
   }
 }
@@ -0,0 +1,102 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of {@link ReusableEvent} instances of one type.
+ * <p>
+ * Acquiring an instance takes one from the pool, or creates one if the
+ * pool is empty, and releasing it resets it and puts it back if there is
+ * room left. Neither operation allocates once the pool is warm.
+ *
+ * @param <T> The event type
+ * @since 1.1.0
+ */
+public final class EventPool<T extends ReusableEvent> {
+  private final Supplier<T> factory;
+  private final Object[] free;
+  private final LongAdder created = new LongAdder();
+  private int size;
+
+  /**
+   * Create a pool
+   *
+   * @param factory  Creates new instances when the pool is empty
+   * @param capacity The maximum amount of idle instances kept by the pool
+   */
+  public EventPool(@NotNull Supplier<T> factory, int capacity) {
+    Objects.requireNonNull(factory, "Factory cannot be null");
+
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+
+    this.factory = factory;
+    this.free = new Object[capacity];
+  }
+
+  /**
+   * Take an event from the pool, the caller owns it until
+   * it gives it back through {@link #release(ReusableEvent)}
+   *
+   * @return A live event with a clean state
+   */
+  @NotNull
+  public T acquire() {
+    T event = poll();
+
+    if (event == null) {
+      event = Objects.requireNonNull(factory.get(), "Event factory returned null");
+      created.increment();
+    }
+
+    event.acquired();
+    return event;
+  }
+
+  /**
+   * Reset an event and give it back to the pool,
+   * the event must not be used afterwards
+   *
+   * @param event The event to release
+   */
+  public void release(@NotNull T event) {
+    Objects.requireNonNull(event, "Event cannot be null");
+
+    if (!event.isLive()) {
+      throw new IllegalStateException("Event has already been released");
+    }
+
+    event.released();
+    offer(event);
+  }
+
+  /**
+   * Get the amount of instances created by this pool,
+   * a value that keeps growing means the pool is too small
+   *
+   * @return The amount of created instances
+   */
+  public long getCreatedCount() {
+    return created.sum();
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized T poll() {
+    if (size == 0) return null;
+
+    T event = (T) free[--size];
+    free[size] = null;
+    return event;
+  }
+
+  private synchronized void offer(T event) {
+    if (size < free.length) {
+      free[size++] = event;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A handle over the handlers registered for one listener object.
+ * <p>
+ * It is returned by {@link EventManager#registerListener(Object)} and
+ * {@link EventManager#registerWeakListener(Object)}, unregistering through
+ * it only touches the event types the listener is subscribed to.
+ *
+ * @since 1.1.0
+ */
+public interface EventSubscription {
+  /**
+   * Get the listener object of this subscription
+   *
+   * @return The listener, or null if it was registered as a weak
+   * listener and has been garbage collected
+   */
+  @Nullable
+  Object getListener();
+
+  /**
+   * Check if the handlers of this subscription are still registered
+   *
+   * @return true if the subscription is active
+   */
+  boolean isActive();
+
+  /**
+   * Unregister the handlers of this subscription,
+   * calling this method more than once does nothing
+   */
+  void unregister();
+}
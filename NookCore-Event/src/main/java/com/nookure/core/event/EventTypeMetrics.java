@@ -0,0 +1,27 @@
+package com.nookure.core.event;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The dispatch counter of one event class.
+ */
+final class EventTypeMetrics {
+  private final LongAdder fired = new LongAdder();
+  private volatile long since = System.nanoTime();
+
+  void record() {
+    fired.increment();
+  }
+
+  EventTypeStatistics snapshot(Class<?> eventType) {
+    long count = fired.sum();
+    double seconds = (System.nanoTime() - since) / 1_000_000_000D;
+
+    return new EventTypeStatistics(eventType, count, seconds > 0 ? count / seconds : 0);
+  }
+
+  void reset() {
+    fired.reset();
+    since = System.nanoTime();
+  }
+}
@@ -0,0 +1,19 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A snapshot of how often an event type is dispatched.
+ *
+ * @param eventType     The event class
+ * @param fired         The amount of events of this class dispatched to at least one handler
+ * @param ratePerSecond The average amount of events dispatched per second
+ * @see EventManager#getEventTypeStatistics()
+ * @since 1.1.0
+ */
+public record EventTypeStatistics(
+    @NotNull Class<?> eventType,
+    long fired,
+    double ratePerSecond
+) {
+}
@@ -1,6 +1,79 @@
 package com.nookure.core.event;
 
+import com.nookure.core.event.index.IndexedHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import java.lang.reflect.Method;
 
-public record EventVector(Method method, Object listener, NookSubscribe nookSubscribe) {
+/**
+ * A registered event handler.
+ * <p>
+ * Everything dispatch needs is kept here, so handlers taken from an
+ * {@link com.nookure.core.event.index.EventListenerIndex} never need
+ * their {@link Method}.
+ *
+ * @param listenerClass   The class declaring the handler
+ * @param methodName      The name of the handler method
+ * @param eventType       The event type the handler takes
+ * @param priority        The priority of the handler
+ * @param lane            The lane the handler runs on
+ * @param ignoreCancelled Whether the handler skips cancelled events
+ * @param parallel        Whether the handler can run alongside its neighbours
+ * @param subscription    The subscription the handler belongs to
+ * @param invoker         The invoker calling the handler
+ * @param metrics         The timings of the handler
+ */
+public record EventVector(
+    @NotNull Class<?> listenerClass,
+    @NotNull String methodName,
+    @NotNull Class<? extends Event> eventType,
+    @NotNull EventPriority priority,
+    @NotNull EventLane lane,
+    boolean ignoreCancelled,
+    boolean parallel,
+    @NotNull EventSubscription subscription,
+    @NotNull EventInvoker invoker,
+    @NotNull HandlerMetrics metrics
+) {
+  @SuppressWarnings("unchecked")
+  EventVector(Method method, EventSubscription subscription, NookSubscribe nookSubscribe, EventInvoker invoker) {
+    this(
+        method.getDeclaringClass(),
+        method.getName(),
+        (Class<? extends Event>) method.getParameterTypes()[0],
+        nookSubscribe.priority(),
+        nookSubscribe.lane(),
+        nookSubscribe.ignoreCancelled(),
+        nookSubscribe.parallel(),
+        subscription,
+        invoker,
+        new HandlerMetrics()
+    );
+  }
+
+  EventVector(Class<?> listenerClass, IndexedHandler handler, EventSubscription subscription, EventInvoker invoker) {
+    this(
+        listenerClass,
+        handler.methodName(),
+        handler.eventType(),
+        handler.priority(),
+        handler.lane(),
+        handler.ignoreCancelled(),
+        handler.parallel(),
+        subscription,
+        invoker,
+        new HandlerMetrics()
+    );
+  }
+
+  /**
+   * Get the listener object declaring the handler
+   *
+   * @return The listener, or null if it was a weak listener that has been garbage collected
+   */
+  @Nullable
+  public Object listener() {
+    return subscription.getListener();
+  }
 }
@@ -0,0 +1,161 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, priority ordered array of handlers for one event type.
+ * <p>
+ * Chains are never modified once published. Registering or unregistering
+ * a handler builds a new chain, so dispatch can iterate the array without
+ * sorting and without taking any lock.
+ */
+final class HandlerChain {
+  static final HandlerChain EMPTY = new HandlerChain(new EventVector[0]);
+
+  private final EventVector[] handlers;
+  /*
+   * For every index, the index of the first handler at or after it that
+   * still wants cancelled events, or the chain length if there is none.
+   */
+  private final int[] nextReceivingCancelled;
+  /*
+   * For every index, the end (exclusive) of the run of parallel handlers
+   * sharing a slot and a lane that starts there, index + 1 when the
+   * handler has to run on its own.
+   */
+  private final int[] parallelGroupEnd;
+
+  private HandlerChain(EventVector[] handlers) {
+    this.handlers = handlers;
+    this.nextReceivingCancelled = new int[handlers.length];
+
+    int next = handlers.length;
+
+    for (int i = handlers.length - 1; i >= 0; i--) {
+      if (!handlers[i].ignoreCancelled()) {
+        next = i;
+      }
+
+      nextReceivingCancelled[i] = next;
+    }
+
+    this.parallelGroupEnd = new int[handlers.length];
+
+    for (int i = handlers.length - 1; i >= 0; i--) {
+      boolean joinsNext = i + 1 < handlers.length
+          && handlers[i].parallel()
+          && handlers[i + 1].parallel()
+          && slotOf(handlers[i]) == slotOf(handlers[i + 1])
+          && handlers[i].lane() == handlers[i + 1].lane();
+
+      parallelGroupEnd[i] = joinsNext ? parallelGroupEnd[i + 1] : i + 1;
+    }
+  }
+
+  /**
+   * Get the handlers of this chain, ordered by {@link EventPriority#getSlot()}.
+   * Handlers sharing a slot keep their registration order.
+   * <p>
+   * The returned array is shared and must not be modified.
+   *
+   * @return The handlers
+   */
+  EventVector[] handlers() {
+    return handlers;
+  }
+
+  /**
+   * Get the first handler at or after the given index that must
+   * still be called once the event has been cancelled
+   *
+   * @param index The index to start from
+   * @return The index of the handler, or the chain length if there is none
+   */
+  int nextReceivingCancelled(int index) {
+    return nextReceivingCancelled[index];
+  }
+
+  /**
+   * Get the end of the group of parallel handlers starting at the given index
+   *
+   * @param index The index of the first handler of the group
+   * @return The exclusive end of the group, index + 1 if the handler runs on its own
+   */
+  int parallelGroupEnd(int index) {
+    return parallelGroupEnd[index];
+  }
+
+  boolean isEmpty() {
+    return handlers.length == 0;
+  }
+
+  /**
+   * Create a new chain containing this chain's handlers plus the given one
+   *
+   * @param eventVector The handler to add
+   * @return The new chain
+   */
+  @NotNull
+  HandlerChain with(@NotNull EventVector eventVector) {
+    int slot = slotOf(eventVector);
+    int index = handlers.length;
+
+    while (index > 0 && slotOf(handlers[index - 1]) > slot) {
+      index--;
+    }
+
+    EventVector[] copy = new EventVector[handlers.length + 1];
+    System.arraycopy(handlers, 0, copy, 0, index);
+    copy[index] = eventVector;
+    System.arraycopy(handlers, index, copy, index + 1, handlers.length - index);
+
+    return new HandlerChain(copy);
+  }
+
+  /**
+   * Create a new chain without the handlers matching the given filter
+   *
+   * @param filter The filter of the handlers to remove
+   * @return The new chain, or this chain if nothing matched
+   */
+  @NotNull
+  HandlerChain without(@NotNull Predicate<EventVector> filter) {
+    EventVector[] kept = Arrays.stream(handlers)
+        .filter(filter.negate())
+        .toArray(EventVector[]::new);
+
+    if (kept.length == handlers.length) return this;
+    if (kept.length == 0) return EMPTY;
+
+    return new HandlerChain(kept);
+  }
+
+  /**
+   * Merge several chains into one, keeping the priority order.
+   * Handlers sharing a slot keep the order in which their chains were given.
+   *
+   * @param chains The chains to merge
+   * @return The merged chain
+   */
+  @NotNull
+  static HandlerChain merge(@NotNull List<HandlerChain> chains) {
+    if (chains.isEmpty()) return EMPTY;
+    if (chains.size() == 1) return chains.get(0);
+
+    EventVector[] merged = chains.stream()
+        .flatMap(chain -> Arrays.stream(chain.handlers))
+        .sorted(Comparator.comparingInt(HandlerChain::slotOf))
+        .toArray(EventVector[]::new);
+
+    return new HandlerChain(merged);
+  }
+
+  private static int slotOf(EventVector eventVector) {
+    return eventVector.priority().getSlot();
+  }
+}
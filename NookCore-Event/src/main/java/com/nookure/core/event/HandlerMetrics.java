@@ -0,0 +1,78 @@
+package com.nookure.core.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The timings recorded for one handler.
+ * <p>
+ * Recording only touches striped counters and a fixed power of two
+ * histogram, so it can be done from many threads without allocating.
+ *
+ * @see HandlerStatistics
+ */
+final class HandlerMetrics {
+  private final LongAdder invocations = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final AtomicLongArray histogram = new AtomicLongArray(HandlerStatistics.BUCKETS);
+  private final AtomicLong lastSlowReport = new AtomicLong(Long.MIN_VALUE);
+
+  void record(long nanos) {
+    invocations.increment();
+    totalNanos.add(nanos);
+    histogram.incrementAndGet(HandlerStatistics.bucketOf(nanos));
+
+    long max = maxNanos.get();
+
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /**
+   * Check if a slow invocation should be reported, at
+   * most one report is allowed for every interval
+   *
+   * @param now           The current {@link System#nanoTime()}
+   * @param intervalNanos The minimum time between two reports
+   * @return true if the invocation should be reported
+   */
+  boolean tryReportSlow(long now, long intervalNanos) {
+    long last = lastSlowReport.get();
+
+    if (last != Long.MIN_VALUE && now - last < intervalNanos) return false;
+
+    return lastSlowReport.compareAndSet(last, now);
+  }
+
+  HandlerStatistics snapshot(EventVector eventVector) {
+    long[] buckets = new long[HandlerStatistics.BUCKETS];
+
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = histogram.get(i);
+    }
+
+    return new HandlerStatistics(
+        eventVector.listenerClass().getName(),
+        eventVector.methodName(),
+        eventVector.eventType(),
+        eventVector.priority(),
+        invocations.sum(),
+        totalNanos.sum(),
+        maxNanos.get(),
+        buckets
+    );
+  }
+
+  void reset() {
+    invocations.reset();
+    totalNanos.reset();
+    maxNanos.set(0);
+
+    for (int i = 0; i < histogram.length(); i++) {
+      histogram.set(i, 0);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A snapshot of the timings recorded for one event handler.
+ * <p>
+ * The latency histogram has {@link #BUCKETS} power of two buckets,
+ * {@code histogram[i]} counts the invocations that took less than
+ * {@link #bucketUpperBoundNanos(int)} and at least the bound of the
+ * previous bucket. The last bucket also counts every slower invocation.
+ *
+ * @param listener    The name of the listener class
+ * @param method      The name of the handler method
+ * @param eventType   The event type the handler listens to
+ * @param priority    The priority of the handler
+ * @param invocations The amount of times the handler has been called
+ * @param totalNanos  The time spent in the handler, in nanoseconds
+ * @param maxNanos    The slowest invocation, in nanoseconds
+ * @param histogram   The latency histogram
+ * @see EventManager#getHandlerStatistics()
+ * @since 1.1.0
+ */
+public record HandlerStatistics(
+    @NotNull String listener,
+    @NotNull String method,
+    @NotNull Class<? extends Event> eventType,
+    @NotNull EventPriority priority,
+    long invocations,
+    long totalNanos,
+    long maxNanos,
+    long @NotNull [] histogram
+) {
+  /**
+   * The amount of buckets of the latency histogram
+   */
+  public static final int BUCKETS = 24;
+  private static final int FIRST_BUCKET_SHIFT = 10;
+
+  /**
+   * Get the upper bound of a histogram bucket, the first
+   * bucket ends at about a microsecond and every following
+   * bucket doubles it
+   *
+   * @param bucket The bucket index
+   * @return The exclusive upper bound of the bucket, in nanoseconds
+   */
+  public static long bucketUpperBoundNanos(int bucket) {
+    return 1L << (bucket + FIRST_BUCKET_SHIFT);
+  }
+
+  static int bucketOf(long nanos) {
+    int bucket = 64 - Long.numberOfLeadingZeros(nanos >>> FIRST_BUCKET_SHIFT);
+    return Math.min(bucket, BUCKETS - 1);
+  }
+
+  /**
+   * Get the average time spent in the handler
+   *
+   * @return The average invocation time, in nanoseconds
+   */
+  public long averageNanos() {
+    return invocations == 0 ? 0 : totalNanos / invocations;
+  }
+
+  /**
+   * Get an estimation of a latency percentile, rounded
+   * up to the upper bound of its histogram bucket
+   *
+   * @param percentile The percentile, between 0 and 100
+   * @return The estimated latency, in nanoseconds
+   */
+  public long percentileNanos(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+
+    long total = 0;
+
+    for (long count : histogram) {
+      total += count;
+    }
+
+    if (total == 0) return 0;
+
+    long target = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+
+    for (int i = 0; i < histogram.length; i++) {
+      seen += histogram[i];
+
+      if (seen >= target) {
+        return Math.min(bucketUpperBoundNanos(i), maxNanos);
+      }
+    }
+
+    return maxNanos;
+  }
+}
@@ -0,0 +1,84 @@
+package com.nookure.core.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@link EventSubscription} created by the {@link EventManager}.
+ * <p>
+ * A subscription holds its listener either strongly or through a
+ * {@link WeakReference}, and remembers the event types it has handlers
+ * for, so it can be removed without walking every registered chain.
+ */
+final class ListenerSubscription implements EventSubscription {
+  private final EventManager eventManager;
+  private final Object listener;
+  private final WeakReference<Object> reference;
+  private final Set<Class<? extends Event>> eventClasses = new LinkedHashSet<>();
+  private final AtomicBoolean active = new AtomicBoolean(true);
+
+  private ListenerSubscription(EventManager eventManager, Object listener, WeakReference<Object> reference) {
+    this.eventManager = eventManager;
+    this.listener = listener;
+    this.reference = reference;
+  }
+
+  static ListenerSubscription strong(@NotNull EventManager eventManager, @NotNull Object listener) {
+    return new ListenerSubscription(eventManager, listener, null);
+  }
+
+  static ListenerSubscription weak(@NotNull EventManager eventManager, @NotNull Object listener) {
+    return new ListenerSubscription(eventManager, null, new WeakReference<>(listener));
+  }
+
+  @Override
+  public @Nullable Object getListener() {
+    return listener != null ? listener : reference.get();
+  }
+
+  boolean isWeak() {
+    return reference != null;
+  }
+
+  /**
+   * Record an event type this subscription has handlers for,
+   * only called while the subscription is being registered
+   *
+   * @param eventClass The event type
+   */
+  void addEventClass(@NotNull Class<? extends Event> eventClass) {
+    eventClasses.add(eventClass);
+  }
+
+  @NotNull
+  Set<Class<? extends Event>> eventClasses() {
+    return Collections.unmodifiableSet(eventClasses);
+  }
+
+  /**
+   * Mark the subscription as inactive
+   *
+   * @return true if it was active until now
+   */
+  boolean deactivate() {
+    return active.compareAndSet(true, false);
+  }
+
+  @Override
+  public boolean isActive() {
+    return active.get();
+  }
+
+  @Override
+  public void unregister() {
+    if (deactivate()) {
+      eventManager.unsubscribe(this);
+    }
+  }
+}
@@ -14,4 +14,32 @@ public @interface NookSubscribe {
    * @return The event priority
    */
   EventPriority priority() default EventPriority.NORMAL;
+
+  /**
+   * The lane the handler runs on when the event is fired
+   * through {@link EventManager#fireEvent(Event)}
+   *
+   * @return The event lane
+   */
+  EventLane lane() default EventLane.ASYNC;
+
+  /**
+   * Whether the handler should be skipped when the event
+   * is a {@link Cancellable} that has already been cancelled
+   *
+   * @return true to skip cancelled events
+   */
+  boolean ignoreCancelled() default false;
+
+  /**
+   * Whether the handler is independent from the other handlers of its
+   * priority, it only reads the event and writes to its own state.
+   * <p>
+   * Consecutive parallel handlers sharing a priority and a lane run
+   * concurrently on a fork join pool, and all of them finish before
+   * the next handler of the chain starts.
+   *
+   * @return true if the handler can run alongside its neighbours
+   */
+  boolean parallel() default false;
 }
@@ -0,0 +1,29 @@
+package com.nookure.core.event;
+
+/**
+ * The layout of the chunks written by {@link PluginMessageManager#sendChunked}.
+ * <p>
+ * Every chunk starts with a header made of {@link #MAGIC}, the id of the
+ * message as a long, the index of the chunk as an int and a flags byte,
+ * followed by the next bytes of the serialized event. Java serialization
+ * streams start with {@code 0xACED}, so unchunked messages are told apart.
+ * <p>
+ * A sender that fails after sending some chunks sends a last, empty chunk
+ * flagged with {@link #FLAG_ABORT}, so the receiver drops the ones it holds.
+ */
+final class PluginMessageChunk {
+  static final short MAGIC = 0x4E43;
+  static final int HEADER_BYTES = Short.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+  static final int FLAG_LAST = 0x01;
+  static final int FLAG_ABORT = 0x02;
+
+  private PluginMessageChunk() {
+    throw new UnsupportedOperationException();
+  }
+
+  static boolean isChunk(byte[] message) {
+    return message.length >= HEADER_BYTES
+        && message[0] == (byte) (MAGIC >>> 8)
+        && message[1] == (byte) MAGIC;
+  }
+}
@@ -4,11 +4,18 @@ import com.google.inject.Inject;
 import com.nookure.core.annotation.PluginDebug;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 public abstract class PluginMessageManager<P> {
@@ -17,8 +24,154 @@ public abstract class PluginMessageManager<P> {
   @Inject
   @PluginDebug
   private AtomicBoolean debug;
+  private final ChunkAssembler chunkAssembler = new ChunkAssembler();
+  private final AtomicLong nextMessageId = new AtomicLong(ThreadLocalRandom.current().nextLong());
+  private volatile int maxChunkBytes = 32766;
+  private volatile int maxMessageBytes = 8 << 20;
+  private volatile int maxBufferedBytes = 32 << 20;
+  private volatile long reassemblyTimeoutNanos = Duration.ofSeconds(30).toNanos();
   abstract public void sendEvent(@NotNull Event event, @NotNull P player);
 
+  /**
+   * Sends an event as plugin messages, split in chunks no bigger than
+   * {@link #setMaxChunkBytes(int) the chunk size}. The event is serialized
+   * straight into the chunks, it's never held in memory as a whole.
+   * <p>
+   * If encoding or sending fails after some chunks were sent, an abort chunk
+   * is sent so the receiving side drops them.
+   * <p>
+   * The receiving side must pass every message of the channel to
+   * {@link #decodeChunk(Object, byte[])}.
+   *
+   * @param event  The event to send
+   * @param sender Sends a chunk through the plugin channel, e.g.
+   *               {@code chunk -> player.sendPluginMessage(channel, chunk)}
+   */
+  public void sendChunked(@NotNull Event event, @NotNull Consumer<byte[]> sender) {
+    Objects.requireNonNull(event, "Event cannot be null");
+    Objects.requireNonNull(sender, "Sender cannot be null");
+
+    ChunkingOutputStream chunks = new ChunkingOutputStream(sender, nextMessageId.incrementAndGet(), maxChunkBytes);
+    boolean sent = false;
+
+    try {
+      // Closing the object stream would send what was written as the last chunk, even on failure
+      ObjectOutputStream objectStream = new ObjectOutputStream(chunks);
+      objectStream.writeObject(event);
+      objectStream.flush();
+      chunks.close();
+      sent = true;
+    } catch (IOException e) {
+      logger.severe("Error while encoding event into plugin message chunks");
+      if (debug.get()) {
+        throw new RuntimeException(e);
+      }
+    } finally {
+      if (!sent) {
+        chunks.abort();
+      }
+    }
+  }
+
+  /**
+   * Decodes a message received on a plugin channel. Chunks are held until the
+   * last chunk of their event arrives, messages that weren't chunked are decoded
+   * straight away.
+   *
+   * @param source  Where the message comes from, usually the player or server connection,
+   *                chunks are only put together with chunks of the same source
+   * @param message The received message
+   * @return The event, or empty while chunks are missing or if it can't be decoded
+   */
+  @NotNull
+  public Optional<Event> decodeChunk(@NotNull Object source, byte @NotNull [] message) {
+    Objects.requireNonNull(source, "Source cannot be null");
+    Objects.requireNonNull(message, "Message cannot be null");
+
+    InputStream stream;
+
+    if (!PluginMessageChunk.isChunk(message)) {
+      stream = new ByteArrayInputStream(message);
+    } else {
+      try {
+        stream = chunkAssembler.add(source, message, maxMessageBytes, maxBufferedBytes, reassemblyTimeoutNanos);
+      } catch (IOException e) {
+        logger.warning("Dropped a chunked plugin message: " + e.getMessage());
+        return Optional.empty();
+      }
+
+      if (stream == null) return Optional.empty();
+    }
+
+    try {
+      return decodeEvent(new ObjectInputStream(stream));
+    } catch (IOException e) {
+      logger.severe("Error while decoding event from object stream");
+      if (debug.get()) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Set the maximum size of a chunk, header included.
+   * Proxies reject plugin messages over 32766 bytes, the default.
+   *
+   * @param maxChunkBytes The maximum size of a chunk
+   */
+  public void setMaxChunkBytes(int maxChunkBytes) {
+    if (maxChunkBytes <= PluginMessageChunk.HEADER_BYTES) {
+      throw new IllegalArgumentException("Chunks must be bigger than their " + PluginMessageChunk.HEADER_BYTES + " bytes header");
+    }
+
+    this.maxChunkBytes = maxChunkBytes;
+  }
+
+  /**
+   * Set the limits of the chunks held while waiting for the rest of their message.
+   * Messages waiting past the timeout are dropped when the next chunk arrives,
+   * or by {@link #expireChunkedMessages()}.
+   *
+   * @param maxMessageBytes  The maximum size of a single message, 8 MiB by default
+   * @param maxBufferedBytes The maximum size of all the pending messages, 32 MiB by default
+   * @param timeout          How long a message can wait for its next chunk, 30 seconds by default
+   */
+  public void setReassemblyLimits(int maxMessageBytes, int maxBufferedBytes, @NotNull Duration timeout) {
+    Objects.requireNonNull(timeout, "Timeout cannot be null");
+
+    if (maxMessageBytes < 1 || maxBufferedBytes < 1) {
+      throw new IllegalArgumentException("The reassembly limits must be positive");
+    }
+
+    this.maxMessageBytes = maxMessageBytes;
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.reassemblyTimeoutNanos = timeout.toNanos();
+  }
+
+  /**
+   * Drop the chunked messages that have been waiting for their next chunk for
+   * longer than the timeout. Expired messages are also dropped as chunks
+   * arrive, this is meant to be scheduled so they don't linger once the
+   * channel goes quiet, e.g. after the sending server went down.
+   *
+   * @return The amount of dropped messages
+   * @since 1.1.0
+   */
+  public int expireChunkedMessages() {
+    return chunkAssembler.expire(reassemblyTimeoutNanos);
+  }
+
+  /**
+   * Get the amount of chunked messages waiting for their next chunks
+   *
+   * @return The amount of pending messages
+   */
+  public int getPendingChunkedMessageCount() {
+    return chunkAssembler.pendingCount();
+  }
+
   @NotNull
   public Optional<Event> decodeEvent(@NotNull ObjectInputStream objetStream) {
     Objects.requireNonNull(objetStream);
@@ -0,0 +1,86 @@
+package com.nookure.core.event;
+
+/**
+ * An event whose instances are recycled through an {@link EventPool}
+ * instead of being allocated every time they are fired.
+ * <p>
+ * An instance only belongs to a handler while it is being dispatched,
+ * once the dispatch is over it is reset and handed out again. Handlers
+ * must copy what they need instead of keeping a reference to the event.
+ * <p>
+ * Every acquire and every release starts a new {@link #generation()}.
+ * Implementations should call {@link #ensureLive()} from their accessors,
+ * it fails while the instance sits in its pool. Once the instance has been
+ * handed out again it is live for its new owner, so code that has to hold
+ * on to the event for a while records {@link #generation()} when it
+ * receives it and checks it with {@link #ensureGeneration(long)} before
+ * every later use, which fails as soon as the instance has been released.
+ *
+ * @see EventManager#fireEventPooled(EventPool, java.util.function.Consumer)
+ * @since 1.1.0
+ */
+public abstract class ReusableEvent implements Event {
+  /*
+   * Odd while the instance is live. Only the owner of the instance
+   * writes it, the pool hands it out to one owner at a time.
+   */
+  private transient volatile long generation;
+
+  /**
+   * Clear the state of the event before it goes back to its pool
+   */
+  protected abstract void reset();
+
+  /**
+   * Check that the event is still in use
+   *
+   * @throws IllegalStateException If the event has been released to its pool
+   */
+  protected final void ensureLive() {
+    if (!isLive()) {
+      throw new IllegalStateException(getClass().getName() + " was used after it had been released to its pool");
+    }
+  }
+
+  /**
+   * Check that the event is still in the generation a holder received
+   *
+   * @param generation The {@link #generation()} recorded when the event was received
+   * @throws IllegalStateException If the event has been released since, even if it has been acquired again
+   * @since 1.1.0
+   */
+  public final void ensureGeneration(long generation) {
+    if (this.generation != generation) {
+      throw new IllegalStateException(getClass().getName() + " was used after it had been released to its pool");
+    }
+  }
+
+  /**
+   * Get the current generation of the event, it changes
+   * every time the event is acquired or released
+   *
+   * @return The generation
+   * @since 1.1.0
+   */
+  public final long generation() {
+    return generation;
+  }
+
+  /**
+   * Check if the event is in use, it is not once it has been released to its pool
+   *
+   * @return true if the event can be used
+   */
+  public final boolean isLive() {
+    return (generation & 1) == 1;
+  }
+
+  final void acquired() {
+    generation++;
+  }
+
+  final void released() {
+    generation++;
+    reset();
+  }
+}
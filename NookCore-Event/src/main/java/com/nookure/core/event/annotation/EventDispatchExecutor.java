@@ -0,0 +1,21 @@
+package com.nookure.core.event.annotation;
+
+import com.google.inject.BindingAnnotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds the {@link java.util.concurrent.Executor} that runs the
+ * {@link com.nookure.core.event.EventLane#ASYNC} handlers.
+ * <p>
+ * The binding is optional, when it is missing the
+ * {@link com.nookure.core.event.EventManager} uses its own pool of daemon threads
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@BindingAnnotation
+public @interface EventDispatchExecutor {
+}
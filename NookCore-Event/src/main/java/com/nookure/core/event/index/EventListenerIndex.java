@@ -0,0 +1,32 @@
+package com.nookure.core.event.index;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A compile time index of the {@link com.nookure.core.event.NookSubscribe}
+ * handlers declared by a listener class.
+ * <p>
+ * Indexes are generated by the NookCore-Event-Processor annotation processor,
+ * one for every listener class, named after the binary name of the listener
+ * followed by {@link #SUFFIX}. When an index is present,
+ * {@link com.nookure.core.event.EventManager#registerListener(Object)} uses it
+ * instead of scanning the listener methods, otherwise it falls back to reflection.
+ *
+ * @since 1.1.0
+ */
+public interface EventListenerIndex {
+  /**
+   * The suffix appended to the listener binary name to get the index class name
+   */
+  String SUFFIX = "_NookListenerIndex";
+
+  /**
+   * Get the handlers declared by the indexed listener class
+   *
+   * @return The handlers, in declaration order
+   */
+  @NotNull
+  List<IndexedHandler> handlers();
+}
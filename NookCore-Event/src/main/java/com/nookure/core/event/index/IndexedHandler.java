@@ -0,0 +1,35 @@
+package com.nookure.core.event.index;
+
+import com.nookure.core.event.Event;
+import com.nookure.core.event.EventInvoker;
+import com.nookure.core.event.EventLane;
+import com.nookure.core.event.EventPriority;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A handler found at compile time, along with the values of its
+ * {@link com.nookure.core.event.NookSubscribe} annotation.
+ *
+ * @param methodName      The name of the handler method
+ * @param eventType       The event type the handler takes
+ * @param priority        The priority of the handler
+ * @param lane            The lane the handler runs on
+ * @param ignoreCancelled Whether the handler skips cancelled events
+ * @param parallel        Whether the handler can run alongside its neighbours
+ * @param invoker         A generated invoker calling the method directly,
+ *                        or null when the method can't be called from generated
+ *                        code and must be invoked like a reflected one
+ * @see EventListenerIndex
+ * @since 1.1.0
+ */
+public record IndexedHandler(
+    @NotNull String methodName,
+    @NotNull Class<? extends Event> eventType,
+    @NotNull EventPriority priority,
+    @NotNull EventLane lane,
+    boolean ignoreCancelled,
+    boolean parallel,
+    @Nullable EventInvoker invoker
+) {
+}
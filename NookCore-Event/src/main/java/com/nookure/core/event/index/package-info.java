@@ -0,0 +1,4 @@
+/**
+ * This package contains the compile time listener index used by the event manager
+ */
+package com.nookure.core.event.index;
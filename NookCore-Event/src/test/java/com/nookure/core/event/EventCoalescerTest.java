@@ -0,0 +1,81 @@
+package com.nookure.core.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventCoalescerTest {
+  private final List<Event> delivered = new CopyOnWriteArrayList<>();
+  private final EventCoalescer coalescer = new EventCoalescer(delivered::add);
+
+  @AfterEach
+  void tearDown() {
+    coalescer.close();
+  }
+
+  @Test
+  void deliversTheLatestEventOfABurst() {
+    WindowedEvent first = new WindowedEvent(Duration.ZERO);
+    WindowedEvent second = new WindowedEvent(Duration.ZERO);
+
+    coalescer.submit(first);
+    coalescer.submit(second);
+    coalescer.flushAll();
+
+    assertEquals(List.of(second), delivered);
+    assertEquals(1, coalescer.coalescedCount());
+  }
+
+  @Test
+  void timerOfAFlushedBurstDoesNotCutTheNextOneShort() throws InterruptedException {
+    WindowedEvent first = new WindowedEvent(Duration.ofMillis(100));
+    // Far longer than the test, only the timer of the first burst can deliver it early
+    WindowedEvent second = new WindowedEvent(Duration.ofMinutes(1));
+
+    coalescer.submit(first);
+    coalescer.flushAll();
+    coalescer.submit(second);
+
+    // Well past the time the first timer was due
+    Thread.sleep(500);
+    assertEquals(List.of(first), delivered);
+
+    coalescer.flushAll();
+    assertEquals(List.of(first, second), delivered);
+  }
+
+  @Test
+  void closeDeliversPendingEventsAndThenDeliversStraightAway() {
+    WindowedEvent pending = new WindowedEvent(Duration.ofMinutes(1));
+    WindowedEvent late = new WindowedEvent(Duration.ofMinutes(1));
+
+    coalescer.submit(pending);
+    coalescer.close();
+    coalescer.submit(late);
+
+    assertEquals(List.of(pending, late), delivered);
+  }
+
+  private static final class WindowedEvent implements CoalescingEvent {
+    private final Duration window;
+
+    private WindowedEvent(Duration window) {
+      this.window = window;
+    }
+
+    @Override
+    public Object getCoalescingKey() {
+      return "key";
+    }
+
+    @Override
+    public Duration getCoalescingWindow() {
+      return window;
+    }
+  }
+}
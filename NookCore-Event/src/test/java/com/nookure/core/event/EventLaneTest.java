@@ -0,0 +1,173 @@
+package com.nookure.core.event;
+
+import com.google.inject.Guice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLaneTest {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final BlockingListener listener = new BlockingListener(release);
+  private final EventManager eventManager = Guice.createInjector(new TestModule(executor)).getInstance(EventManager.class);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void saturatedLaneRejectsInsteadOfRunningOnTheCaller() throws Exception {
+    // The blocked handlers are slow on purpose
+    eventManager.setInstrumentationEnabled(false);
+    eventManager.registerListener(listener);
+
+    int capacity = eventManager.getLaneStatistics(EventLane.ASYNC).capacity();
+    List<CompletableFuture<LaneEvent>> futures = new ArrayList<>();
+
+    for (int i = 0; i < capacity + 10; i++) {
+      futures.add(eventManager.fireEvent(new LaneEvent()));
+    }
+
+    EventLaneStatistics statistics = eventManager.getLaneStatistics(EventLane.ASYNC);
+    assertEquals(10, statistics.rejected());
+    assertEquals(capacity, statistics.inFlight());
+
+    for (int i = capacity; i < futures.size(); i++) {
+      assertRejected(futures.get(i));
+    }
+
+    release.countDown();
+
+    for (int i = 0; i < capacity; i++) {
+      futures.get(i).get(10, TimeUnit.SECONDS);
+    }
+
+    assertFalse(listener.ranOn.contains(Thread.currentThread()));
+    assertEquals(capacity, listener.ranOn.size());
+  }
+
+  @Test
+  void closeRejectsAsyncEventsAndKeepsSyncDispatch() throws Exception {
+    release.countDown();
+    eventManager.registerListener(listener);
+    eventManager.registerListener(new SyncListener());
+    eventManager.fireEvent(new LaneEvent()).get(10, TimeUnit.SECONDS);
+
+    eventManager.close();
+
+    assertTrue(eventManager.isClosed());
+    assertRejected(eventManager.fireEvent(new LaneEvent()));
+
+    SyncEvent event = new SyncEvent();
+    assertSame(event, eventManager.fireEventSync(event));
+    assertEquals(1, event.calls);
+
+    // The injected executor belongs to the plugin
+    assertFalse(executor.isShutdown());
+  }
+
+  @Test
+  void closeDeliversPendingCoalescedEvents() {
+    SyncListener syncListener = new SyncListener();
+    eventManager.registerListener(syncListener);
+
+    eventManager.fireEventCoalesced(new SyncEvent());
+    assertEquals(0, syncListener.calls);
+
+    eventManager.close();
+    assertEquals(1, syncListener.calls);
+  }
+
+  @Test
+  void closeDeliversPendingCoalescedEventsToAsyncHandlers() throws InterruptedException {
+    AsyncCoalescedListener asyncListener = new AsyncCoalescedListener();
+    eventManager.registerListener(asyncListener);
+
+    eventManager.fireEventCoalesced(new AsyncCoalescedEvent());
+    eventManager.close();
+
+    assertTrue(asyncListener.delivered.await(10, TimeUnit.SECONDS));
+    assertEquals(0, eventManager.getLaneStatistics(EventLane.ASYNC).rejected());
+  }
+
+  private static void assertRejected(CompletableFuture<?> future) {
+    ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+    assertInstanceOf(RejectedExecutionException.class, cause);
+  }
+
+  public static class LaneEvent implements Event {
+  }
+
+  public static class SyncEvent implements CoalescingEvent {
+    private int calls;
+
+    @Override
+    public Object getCoalescingKey() {
+      return "key";
+    }
+  }
+
+  public static class AsyncCoalescedEvent implements CoalescingEvent {
+    @Override
+    public Object getCoalescingKey() {
+      return "key";
+    }
+  }
+
+  public static class BlockingListener {
+    private final CountDownLatch release;
+    private final List<Thread> ranOn = new ArrayList<>();
+
+    BlockingListener(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @NookSubscribe
+    public void onEvent(LaneEvent event) throws InterruptedException {
+      release.await();
+
+      synchronized (ranOn) {
+        ranOn.add(Thread.currentThread());
+      }
+    }
+  }
+
+  public static class SyncListener {
+    private int calls;
+
+    @NookSubscribe(lane = EventLane.SYNC)
+    public void onEvent(SyncEvent event) {
+      event.calls++;
+      calls++;
+    }
+  }
+
+  public static class AsyncCoalescedListener {
+    private final CountDownLatch delivered = new CountDownLatch(1);
+
+    @NookSubscribe
+    public void onEvent(AsyncCoalescedEvent event) {
+      delivered.countDown();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.nookure.core.event;
+
+import com.google.inject.Guice;
+import com.nookure.core.event.index.EventListenerIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventListenerIndexTest {
+  private final EventManager eventManager = Guice.createInjector(new TestModule()).getInstance(EventManager.class);
+
+  @Test
+  void indexedListenerIsRegisteredWithoutReflection() throws Exception {
+    Class<?> listenerClass = new IsolatingClassLoader().loadClass(IndexedListener.class.getName());
+
+    // Any getDeclared* call on the class fails, so registering it proves the index path never reflects
+    assertThrows(NoClassDefFoundError.class, listenerClass::getDeclaredMethods);
+
+    eventManager.registerListener(listenerClass.getConstructor().newInstance());
+
+    IndexedEvent event = eventManager.fireEventSync(new IndexedEvent());
+    assertEquals(List.of("cancel", "monitor"), event.calls);
+
+    assertTrue(eventManager.getHandlerStatistics().stream()
+        .anyMatch(statistics -> statistics.method().equals("skipped") && statistics.priority() == EventPriority.NORMAL));
+  }
+
+  @Test
+  void genericListenerIsIndexed() throws ClassNotFoundException {
+    Class.forName(GenericListener.class.getName() + EventListenerIndex.SUFFIX);
+
+    eventManager.registerListener(new GenericListener<IndexedEvent>());
+
+    assertEquals(List.of("generic"), eventManager.fireEventSync(new IndexedEvent()).calls);
+  }
+
+  public static class GenericListener<T extends IndexedEvent> {
+    @NookSubscribe(lane = EventLane.SYNC)
+    public void onEvent(T event) {
+      event.calls.add("generic");
+    }
+  }
+
+  /**
+   * Defines the listener and its index itself, and can't load {@link IndexedListener.HiddenType}
+   */
+  private static final class IsolatingClassLoader extends ClassLoader {
+    private IsolatingClassLoader() {
+      super(EventListenerIndexTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (name.equals(IndexedListener.HiddenType.class.getName())) throw new ClassNotFoundException(name);
+      if (!name.startsWith(IndexedListener.class.getName())) return super.loadClass(name, resolve);
+
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+
+        if (loaded != null) return loaded;
+
+        try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+          if (in == null) throw new ClassNotFoundException(name);
+
+          byte[] bytes = in.readAllBytes();
+          return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+    }
+  }
+}
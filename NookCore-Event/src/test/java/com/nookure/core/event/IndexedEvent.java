@@ -0,0 +1,19 @@
+package com.nookure.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IndexedEvent implements Event, Cancellable {
+  public final List<String> calls = new ArrayList<>();
+  private boolean cancelled;
+
+  @Override
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  @Override
+  public void setCancelled(boolean cancelled) {
+    this.cancelled = cancelled;
+  }
+}
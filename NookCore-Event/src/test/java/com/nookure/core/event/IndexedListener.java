@@ -0,0 +1,32 @@
+package com.nookure.core.event;
+
+/**
+ * A listener indexed by the annotation processor when the tests are compiled
+ */
+public class IndexedListener {
+  @NookSubscribe(priority = EventPriority.MONITOR, lane = EventLane.SYNC)
+  public void monitor(IndexedEvent event) {
+    event.calls.add("monitor");
+  }
+
+  @NookSubscribe(lane = EventLane.SYNC, ignoreCancelled = true)
+  public void skipped(IndexedEvent event) {
+    event.calls.add("skipped");
+  }
+
+  @NookSubscribe(priority = EventPriority.LOWEST, lane = EventLane.SYNC)
+  public void cancel(IndexedEvent event) {
+    event.calls.add("cancel");
+    event.setCancelled(true);
+  }
+
+  /**
+   * Not a handler, it makes the class impossible to reflect
+   * once {@link HiddenType} can't be loaded
+   */
+  public void unrelated(HiddenType hidden) {
+  }
+
+  public static class HiddenType {
+  }
+}
@@ -0,0 +1,116 @@
+package com.nookure.core.event;
+
+import com.google.inject.Guice;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginMessageManagerTest {
+  private static final Object SOURCE = new Object();
+
+  private final PluginMessageManager<Object> manager = new PluginMessageManager<>() {
+    @Override
+    public void sendEvent(@NotNull Event event, @NotNull Object player) {
+    }
+  };
+  private final List<byte[]> chunks = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    Guice.createInjector(new TestModule()).injectMembers(manager);
+    manager.setMaxChunkBytes(1024);
+  }
+
+  @Test
+  void chunkedEventIsPutBackTogether() {
+    PayloadEvent event = new PayloadEvent(10_000, null);
+    manager.sendChunked(event, chunks::add);
+
+    assertTrue(chunks.size() > 1);
+
+    Optional<Event> decoded = Optional.empty();
+
+    for (byte[] chunk : chunks) {
+      decoded = manager.decodeChunk(SOURCE, chunk);
+    }
+
+    assertArrayEquals(event.data, ((PayloadEvent) decoded.orElseThrow()).data);
+    assertEquals(0, manager.getPendingChunkedMessageCount());
+  }
+
+  @Test
+  void failedEncodingAbortsTheSentChunks() {
+    // The payload is written and sent before the field that can't be serialized
+    manager.sendChunked(new PayloadEvent(10_000, new Object()), chunks::add);
+
+    assertTrue(chunks.size() > 1);
+
+    for (byte[] chunk : chunks.subList(0, chunks.size() - 1)) {
+      assertTrue(manager.decodeChunk(SOURCE, chunk).isEmpty());
+    }
+
+    assertEquals(1, manager.getPendingChunkedMessageCount());
+    assertTrue(manager.decodeChunk(SOURCE, chunks.get(chunks.size() - 1)).isEmpty());
+    assertEquals(0, manager.getPendingChunkedMessageCount());
+  }
+
+  @Test
+  void failedSendAbortsTheSentChunks() {
+    int[] calls = {0};
+
+    assertThrows(IllegalStateException.class, () -> manager.sendChunked(new PayloadEvent(10_000, null), chunk -> {
+      // The third chunk fails, the abort chunk goes through
+      if (++calls[0] == 3) throw new IllegalStateException("Connection lost");
+
+      chunks.add(chunk);
+    }));
+
+    assertEquals(3, chunks.size());
+
+    for (byte[] chunk : chunks.subList(0, 2)) {
+      manager.decodeChunk(SOURCE, chunk);
+    }
+
+    assertEquals(1, manager.getPendingChunkedMessageCount());
+    assertTrue(manager.decodeChunk(SOURCE, chunks.get(2)).isEmpty());
+    assertEquals(0, manager.getPendingChunkedMessageCount());
+  }
+
+  @Test
+  void staleMessagesExpireWithoutFurtherChunks() throws InterruptedException {
+    manager.setReassemblyLimits(8 << 20, 32 << 20, Duration.ofMinutes(1));
+    manager.sendChunked(new PayloadEvent(10_000, null), chunks::add);
+    manager.decodeChunk(SOURCE, chunks.get(0));
+
+    assertEquals(0, manager.expireChunkedMessages());
+
+    // The timeout is read on expiry, shortening it applies to the pending message
+    manager.setReassemblyLimits(8 << 20, 32 << 20, Duration.ofMillis(10));
+    Thread.sleep(50);
+
+    assertEquals(1, manager.expireChunkedMessages());
+    assertEquals(0, manager.getPendingChunkedMessageCount());
+  }
+
+  static class PayloadEvent implements Event {
+    private final byte[] data;
+    private final Object extra;
+
+    PayloadEvent(int size, Object extra) {
+      this.data = new byte[size];
+      Arrays.fill(data, (byte) 7);
+      this.extra = extra;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.nookure.core.event;
+
+import com.google.inject.Guice;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReusableEventTest {
+  private final EventPool<PooledEvent> pool = new EventPool<>(PooledEvent::new, 1);
+
+  @Test
+  void releasedEventFailsItsAccessors() {
+    PooledEvent event = pool.acquire();
+    event.value = 1;
+    assertEquals(1, event.getValue());
+
+    pool.release(event);
+
+    assertFalse(event.isLive());
+    assertThrows(IllegalStateException.class, event::getValue);
+    assertThrows(IllegalStateException.class, () -> pool.release(event));
+  }
+
+  @Test
+  void keptReferenceIsDetectedOnceTheEventIsReacquired() {
+    PooledEvent event = pool.acquire();
+    long generation = event.generation();
+    event.ensureGeneration(generation);
+
+    pool.release(event);
+    PooledEvent reacquired = pool.acquire();
+
+    assertSame(event, reacquired);
+    assertTrue(event.isLive());
+    assertNotEquals(generation, reacquired.generation());
+    assertThrows(IllegalStateException.class, () -> event.ensureGeneration(generation));
+    reacquired.ensureGeneration(reacquired.generation());
+  }
+
+  @Test
+  void pooledDispatchReusesTheInstance() {
+    EventManager eventManager = Guice.createInjector(new TestModule()).getInstance(EventManager.class);
+    KeepingListener listener = new KeepingListener();
+    eventManager.registerListener(listener);
+
+    eventManager.fireEventPooled(pool, event -> event.value = 1);
+    PooledEvent first = listener.kept;
+    long firstGeneration = listener.keptGeneration;
+
+    eventManager.fireEventPooled(pool, event -> event.value = 2);
+
+    assertSame(first, listener.kept);
+    assertEquals(1, pool.getCreatedCount());
+    assertEquals(2, listener.lastValue);
+    assertThrows(IllegalStateException.class, () -> first.ensureGeneration(firstGeneration));
+  }
+
+  public static class PooledEvent extends ReusableEvent {
+    private int value;
+
+    public int getValue() {
+      ensureLive();
+      return value;
+    }
+
+    @Override
+    protected void reset() {
+      value = 0;
+    }
+  }
+
+  public static class KeepingListener {
+    private PooledEvent kept;
+    private long keptGeneration;
+    private int lastValue;
+
+    @NookSubscribe(lane = EventLane.SYNC)
+    public void onEvent(PooledEvent event) {
+      kept = event;
+      keptGeneration = event.generation();
+      lastValue = event.getValue();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.nookure.core.event;
+
+import com.google.inject.AbstractModule;
+import com.nookure.core.annotation.PluginDebug;
+import com.nookure.core.event.annotation.EventDispatchExecutor;
+import com.nookure.core.logger.annotation.PluginAudience;
+import com.nookure.core.logger.annotation.PluginLoggerColor;
+import com.nookure.core.logger.annotation.PluginName;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The bindings an {@link EventManager} and its {@link com.nookure.core.logger.Logger} need outside a plugin
+ */
+class TestModule extends AbstractModule {
+  private final Executor dispatchExecutor;
+
+  TestModule() {
+    this(null);
+  }
+
+  TestModule(Executor dispatchExecutor) {
+    this.dispatchExecutor = dispatchExecutor;
+  }
+
+  @Override
+  protected void configure() {
+    bind(AtomicBoolean.class).annotatedWith(PluginDebug.class).toInstance(new AtomicBoolean(false));
+    bind(String.class).annotatedWith(PluginName.class).toInstance("NookCore Test");
+    bind(NamedTextColor.class).annotatedWith(PluginLoggerColor.class).toInstance(NamedTextColor.GRAY);
+    bind(Audience.class).annotatedWith(PluginAudience.class).toInstance(Audience.empty());
+
+    if (dispatchExecutor != null) {
+      bind(Executor.class).annotatedWith(EventDispatchExecutor.class).toInstance(dispatchExecutor);
+    }
+  }
+}
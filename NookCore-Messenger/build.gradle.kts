@@ -3,6 +3,8 @@ dependencies {
   api(project(":NookCore-Event"))
   api(project(":NookCore-Player"))
   compileOnly(libs.jedis)
+  testImplementation(libs.jedis)
+  compileOnly(libs.configurateYaml)
   compileOnly(libs.paperApi)
   compileOnly(libs.waterfall)
   compileOnly(libs.velocity)
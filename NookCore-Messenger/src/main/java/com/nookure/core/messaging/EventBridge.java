@@ -0,0 +1,121 @@
+package com.nookure.core.messaging;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.event.Event;
+import com.nookure.core.event.EventLane;
+import com.nookure.core.event.EventManager;
+import com.nookure.core.event.EventPriority;
+import com.nookure.core.event.EventSubscription;
+import com.nookure.core.event.NookSubscribe;
+import com.nookure.core.logger.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Connects the {@link EventManager} to the {@link EventMessenger}, so
+ * {@link NetworkReplicated} events fired on a node are fired on every node.
+ * <p>
+ * Replicated events are published once every local handler has seen them,
+ * cancelled events are not published. Received replicated events are fired
+ * into the local event manager without being published again. The bridge
+ * enables origin tracking on the messenger, so the payloads this node
+ * published, and duplicated payloads, are dropped before being decoded.
+ */
+@Singleton
+public class EventBridge implements AutoCloseable {
+  private static final ClassValue<Boolean> REPLICATED = new ClassValue<>() {
+    @Override
+    protected Boolean computeValue(@NotNull Class<?> type) {
+      return type.isAnnotationPresent(NetworkReplicated.class);
+    }
+  };
+
+  @Inject
+  private EventManager eventManager;
+  @Inject
+  private EventMessenger eventMessenger;
+  @Inject
+  private Logger logger;
+  // Received events being fired, by identity, so they aren't published back
+  private final Set<Event> inbound = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+  private final Consumer<Event> receiver = this::onReceived;
+  private volatile Supplier<? extends PlayerWrapperBase> senderSupplier;
+  private EventSubscription subscription;
+
+  /**
+   * Start replicating events
+   *
+   * @param senderSupplier Supplies the sender of the published events, transports that
+   *                       need a player to send through use it, if it supplies null the
+   *                       event is not published
+   */
+  public synchronized void start(@NotNull Supplier<? extends PlayerWrapperBase> senderSupplier) {
+    Objects.requireNonNull(senderSupplier, "Sender supplier cannot be null");
+
+    if (subscription != null) {
+      throw new IllegalStateException("The event bridge is already started");
+    }
+
+    this.senderSupplier = senderSupplier;
+
+    if (eventMessenger.getNodeId() == null) {
+      eventMessenger.enableOriginTracking(UUID.randomUUID());
+    }
+
+    eventMessenger.addReceiver(receiver);
+    subscription = eventManager.registerListener(this);
+  }
+
+  /**
+   * Check if an event type is replicated
+   *
+   * @param type The event type
+   * @return If the type, or one of its superclasses, is annotated with {@link NetworkReplicated}
+   */
+  public static boolean isReplicated(@NotNull Class<?> type) {
+    Objects.requireNonNull(type, "Type cannot be null");
+    return REPLICATED.get(type);
+  }
+
+  @NookSubscribe(priority = EventPriority.MONITOR, lane = EventLane.SYNC, ignoreCancelled = true)
+  public void onEvent(Event event) {
+    if (!REPLICATED.get(event.getClass()) || inbound.contains(event)) return;
+
+    PlayerWrapperBase sender = senderSupplier.get();
+
+    if (sender == null) {
+      logger.debug("No sender available, %s has not been replicated", event.getClass().getSimpleName());
+      return;
+    }
+
+    eventMessenger.publish(sender, event);
+  }
+
+  private void onReceived(Event event) {
+    if (!REPLICATED.get(event.getClass())) return;
+
+    inbound.add(event);
+    eventManager.fireEvent(event).whenComplete((fired, throwable) -> inbound.remove(event));
+  }
+
+  /**
+   * Stop replicating events
+   */
+  @Override
+  public synchronized void close() {
+    if (subscription == null) return;
+
+    subscription.unregister();
+    subscription = null;
+    eventMessenger.removeReceiver(receiver);
+  }
+}
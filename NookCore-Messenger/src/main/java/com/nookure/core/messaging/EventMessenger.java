@@ -2,22 +2,64 @@ package com.nookure.core.messaging;
 
 import com.google.inject.Inject;
 import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.annotation.PluginDataFolder;
 import com.nookure.core.annotation.PluginDebug;
+import com.nookure.core.event.CoalescingEvent;
 import com.nookure.core.event.Event;
 import com.nookure.core.logger.Logger;
+import com.nookure.core.messaging.codec.EventCodecRegistry;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public abstract class EventMessenger implements AutoCloseable {
+  private static final long OUTBOX_REPLAY_INTERVAL_MILLIS = 1000;
+
+  // Shared with the transports, so they log as the same plugin
   @Inject
-  private Logger logger;
+  protected Logger logger;
+  @Inject(optional = true)
+  @PluginDataFolder
+  private Path pluginDataFolder;
   @Inject
   @PluginDebug
   private AtomicBoolean debug;
+  @Inject
+  private EventCodecRegistry codecRegistry;
+  private volatile MessageBatcher batcher;
+  private volatile OutboundQueue outboundQueue;
+  private volatile int compressionThreshold = -1;
+  private final boolean bufferTransport = overridesBufferPublish(getClass());
+  private final List<Consumer<? super Event>> receivers = new CopyOnWriteArrayList<>();
+  private final OriginFilter originFilter = new OriginFilter();
+  private final AtomicLong sequence = new AtomicLong();
+  private final LongAdder suppressedOwn = new LongAdder();
+  private final LongAdder suppressedDuplicates = new LongAdder();
+  private volatile UUID nodeId;
+  private volatile Outbox outbox;
+  private volatile Supplier<? extends PlayerWrapperBase> outboxSender;
+  private ScheduledExecutorService outboxReplayer;
 
   /**
    * Prepares the event transport for use.
@@ -32,33 +74,497 @@ public abstract class EventMessenger implements AutoCloseable {
    */
   public abstract void publish(@NotNull PlayerWrapperBase sender, byte @NotNull [] data);
 
+  /**
+   * Publishes the remaining bytes of a buffer, heap or direct, to the event bus.
+   * <p>
+   * The buffer is only valid for the duration of the call, transports sending
+   * it later must copy it. Transports able to write straight from a buffer should
+   * override this method, the messenger then hands them its encoding buffers
+   * without copying them. By default the bytes are copied into an array for
+   * {@link #publish(PlayerWrapperBase, byte[])}.
+   *
+   * @param sender The sender of the event
+   * @param data   The event data
+   */
+  public void publish(@NotNull PlayerWrapperBase sender, @NotNull ByteBuffer data) {
+    Objects.requireNonNull(sender);
+    Objects.requireNonNull(data);
+
+    byte[] bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
+    publish(sender, bytes);
+  }
+
+  /**
+   * Publishes an event to the event bus.
+   * <p>
+   * Event types registered in the {@link EventCodecRegistry} are written
+   * with their codec, any other type is written with Java serialization.
+   * When batching is enabled the event is queued in the batch of the sender.
+   * When the outbound queue is enabled the payload is queued for the writer thread.
+   *
+   * @param sender The sender of the event
+   * @param event  The event
+   */
   public void publish(@NotNull PlayerWrapperBase sender, @NotNull Event event) {
     Objects.requireNonNull(sender);
     Objects.requireNonNull(event);
 
-    try {
-      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-      ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
-      objectOutputStream.writeObject(event);
-      objectOutputStream.flush();
+    PayloadBuffer buffer = PayloadBuffer.acquire();
 
+    try {
+      encodeEvent(event, buffer);
+      MessageBatcher currentBatcher = batcher;
 
-      publish(sender, byteArrayOutputStream.toByteArray());
+      if (currentBatcher != null) {
+        currentBatcher.add(sender, buffer.toByteArray());
+      } else {
+        sendPayload(sender, buffer.array(), buffer.size(), false, coalescingKey(event));
+      }
     } catch (IOException e) {
       logger.severe("Error while serializing event");
       if (debug.get()) {
         throw new RuntimeException(e);
       }
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * Enable batching, events published through {@link #publish(PlayerWrapperBase, Event)}
+   * are then grouped by sender and sent as a single framed payload. A batch is
+   * sent once it reaches the byte budget, once the flush interval elapses or
+   * on {@link #flush()}, whichever happens first.
+   * <p>
+   * Receivers must use {@link #decodeEvents(byte[])} to unpack batched payloads.
+   *
+   * @param maxBatchBytes The byte budget of a batch
+   * @param flushInterval How long events can wait in a batch, zero to only
+   *                      flush on size or on {@link #flush()}, e.g. at tick end
+   */
+  public synchronized void enableBatching(int maxBatchBytes, @NotNull Duration flushInterval) {
+    Objects.requireNonNull(flushInterval);
+
+    if (maxBatchBytes < 1) {
+      throw new IllegalArgumentException("The batch byte budget must be positive");
+    }
+
+    disableBatching();
+    batcher = new MessageBatcher(maxBatchBytes, flushInterval, (sender, payload) -> sendPayload(sender, payload, payload.length, true, null));
+  }
+
+  /**
+   * Enable the outbound queue, payloads are then handed to the transport by a
+   * single writer thread, so a stalled transport doesn't stall the publishers.
+   * Once the queue is full, published payloads are handled following the policy.
+   * <p>
+   * Only single events can be coalesced, batched payloads never are.
+   *
+   * @param capacity The maximum amount of queued payloads
+   * @param policy   What to do with payloads published while the queue is full
+   * @since 1.1.0
+   */
+  public synchronized void enableOutboundQueue(int capacity, @NotNull OverflowPolicy policy) {
+    Objects.requireNonNull(policy, "Policy cannot be null");
+
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The queue capacity must be positive");
+    }
+
+    disableOutboundQueue();
+    outboundQueue = new OutboundQueue(capacity, policy, logger, (sender, payload) -> handOffNow(sender, payload, payload.length, true));
+  }
+
+  /**
+   * Disable the outbound queue, waiting for the queued payloads to be sent
+   *
+   * @since 1.1.0
+   */
+  public synchronized void disableOutboundQueue() {
+    OutboundQueue currentQueue = outboundQueue;
+    outboundQueue = null;
+
+    if (currentQueue != null) {
+      currentQueue.close();
     }
   }
 
+  /**
+   * Get a snapshot of the activity of the outbound queue
+   *
+   * @return The statistics, or empty if the outbound queue is disabled
+   * @since 1.1.0
+   */
+  @NotNull
+  public Optional<OutboundQueueStatistics> getOutboundQueueStatistics() {
+    OutboundQueue currentQueue = outboundQueue;
+    return currentQueue == null ? Optional.empty() : Optional.of(currentQueue.statistics());
+  }
+
+  /**
+   * Enable the outbox in the {@code outbox} folder of the plugin data folder,
+   * see {@link #enableOutbox(Path, Supplier, long)}
+   *
+   * @param senderSupplier Supplies the sender the kept payloads are replayed with
+   * @param maxBytes       The maximum size of the outbox on disk
+   * @throws IOException If the outbox can't be opened
+   * @since 1.1.0
+   */
+  public void enableOutbox(@NotNull Supplier<? extends PlayerWrapperBase> senderSupplier, long maxBytes) throws IOException {
+    if (pluginDataFolder == null) {
+      throw new IllegalStateException("No plugin data folder is bound, the outbox folder must be given");
+    }
+
+    enableOutbox(pluginDataFolder.resolve("outbox"), senderSupplier, maxBytes);
+  }
+
+  /**
+   * Enable the outbox, payloads the transport can't take because it throws a
+   * {@link TransportUnavailableException} are then appended to memory-mapped
+   * segment files instead of being dropped, and replayed in order once the
+   * transport is back. While the outbox holds payloads, newly published ones are
+   * appended behind them. Payloads left by a previous run are replayed as well.
+   * <p>
+   * The senders of the payloads can't be kept, they are replayed with the
+   * sender of the supplier, replaying is skipped while it supplies null.
+   * When origin tracking is enabled replayed payloads keep their tag, so a
+   * payload delivered twice around an outage is only received once.
+   * <p>
+   * Once the outbox reaches its maximum size, payloads are dropped.
+   *
+   * @param folder         The folder of the segment files, only one messenger can use it at a time
+   * @param senderSupplier Supplies the sender the kept payloads are replayed with
+   * @param maxBytes       The maximum size of the outbox on disk
+   * @throws IOException If the outbox can't be opened
+   * @since 1.1.0
+   */
+  public synchronized void enableOutbox(
+      @NotNull Path folder,
+      @NotNull Supplier<? extends PlayerWrapperBase> senderSupplier,
+      long maxBytes
+  ) throws IOException {
+    Objects.requireNonNull(folder, "Folder cannot be null");
+    Objects.requireNonNull(senderSupplier, "Sender supplier cannot be null");
+
+    if (maxBytes < Outbox.SEGMENT_BYTES) {
+      throw new IllegalArgumentException("The outbox must be able to hold at least one segment of " + Outbox.SEGMENT_BYTES + " bytes");
+    }
+
+    disableOutbox();
+
+    Outbox opened = Outbox.open(folder, maxBytes);
+
+    if (!opened.isEmpty()) {
+      logger.info("The outbox holds %d events from a previous run, they will be replayed", opened.pendingCount());
+    }
+
+    outboxSender = senderSupplier;
+    outbox = opened;
+    outboxReplayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "NookCore Messenger Outbox");
+      thread.setDaemon(true);
+      return thread;
+    });
+    outboxReplayer.scheduleWithFixedDelay(this::replay, 0, OUTBOX_REPLAY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Disable the outbox, the payloads it holds stay on disk and are
+   * replayed once an outbox is enabled on the same folder again
+   *
+   * @since 1.1.0
+   */
+  public synchronized void disableOutbox() {
+    Outbox currentOutbox = outbox;
+    ScheduledExecutorService replayer = outboxReplayer;
+    outbox = null;
+    outboxReplayer = null;
+
+    if (currentOutbox == null) return;
+
+    replayer.shutdownNow();
+
+    try {
+      replayer.awaitTermination(OUTBOX_REPLAY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      currentOutbox.close();
+    } catch (IOException e) {
+      logger.severe("Error while closing the outbox");
+      logger.severe(e);
+    }
+  }
+
+  /**
+   * Replay the payloads of the outbox without waiting for the next attempt,
+   * transports call it once they are back. Does nothing when the outbox is disabled.
+   *
+   * @since 1.1.0
+   */
+  public void replayOutbox() {
+    ScheduledExecutorService replayer = outboxReplayer;
+
+    if (replayer == null) return;
+
+    try {
+      replayer.execute(this::replay);
+    } catch (RejectedExecutionException ignored) {
+      // Disabled in the meantime
+    }
+  }
+
+  /**
+   * Check if the outbox is enabled
+   *
+   * @return If payloads the transport can't take are kept
+   * @since 1.1.0
+   */
+  public boolean isOutboxEnabled() {
+    return outbox != null;
+  }
+
+  /**
+   * Get the amount of payloads waiting in the outbox
+   *
+   * @return The amount of payloads, zero when the outbox is disabled
+   * @since 1.1.0
+   */
+  public long getOutboxPendingCount() {
+    Outbox currentOutbox = outbox;
+    return currentOutbox == null ? 0 : currentOutbox.pendingCount();
+  }
+
+  /**
+   * Set the size from which payloads are compressed before being published,
+   * batches are compressed as a whole. Compressed payloads are flagged in
+   * their header, so receivers decode compressed and plain payloads alike.
+   *
+   * @param thresholdBytes The minimum size of a compressed payload, or -1 to disable compression
+   */
+  public void setCompressionThreshold(int thresholdBytes) {
+    if (thresholdBytes < -1) {
+      throw new IllegalArgumentException("The compression threshold must be -1 or positive");
+    }
+
+    this.compressionThreshold = thresholdBytes;
+  }
+
+  /**
+   * Tag every published payload with the id of this node and a sequence number.
+   * <p>
+   * Received payloads tagged with the id of this node are dropped, and a tagged
+   * payload received twice is only handed to the receivers once, both before
+   * being decoded. The id must be unique to this run of the node, sequence
+   * numbers start over with every messenger.
+   *
+   * @param nodeId The id of this node
+   */
+  public void enableOriginTracking(@NotNull UUID nodeId) {
+    this.nodeId = Objects.requireNonNull(nodeId, "Node id cannot be null");
+  }
+
+  /**
+   * Get the id published payloads are tagged with
+   *
+   * @return The node id, or null if origin tracking is disabled
+   */
+  @Nullable
+  public UUID getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Get the amount of received payloads dropped because this node published them
+   *
+   * @return The amount of dropped payloads
+   */
+  public long getSuppressedOwnCount() {
+    return suppressedOwn.sum();
+  }
+
+  /**
+   * Get the amount of received payloads dropped because they were already received
+   *
+   * @return The amount of dropped payloads
+   */
+  public long getSuppressedDuplicateCount() {
+    return suppressedDuplicates.sum();
+  }
+
+  /**
+   * Disable batching, the pending batches are sent straight away
+   */
+  public synchronized void disableBatching() {
+    MessageBatcher currentBatcher = batcher;
+    batcher = null;
+
+    if (currentBatcher != null) {
+      currentBatcher.close();
+    }
+  }
+
+  /**
+   * Send every pending batch, does nothing when batching is disabled
+   */
+  public void flush() {
+    MessageBatcher currentBatcher = batcher;
+
+    if (currentBatcher != null) {
+      currentBatcher.flushAll();
+    }
+  }
+
+  /**
+   * Add a receiver, it's called with every event the transport receives,
+   * on the thread of the transport
+   *
+   * @param receiver The receiver
+   */
+  public void addReceiver(@NotNull Consumer<? super Event> receiver) {
+    Objects.requireNonNull(receiver, "Receiver cannot be null");
+    receivers.add(receiver);
+  }
+
+  /**
+   * Remove a receiver added with {@link #addReceiver(Consumer)}
+   *
+   * @param receiver The receiver
+   */
+  public void removeReceiver(@NotNull Consumer<? super Event> receiver) {
+    Objects.requireNonNull(receiver, "Receiver cannot be null");
+    receivers.remove(receiver);
+  }
+
+  /**
+   * Called by transports with every payload they receive, the payload is
+   * decoded and its events handed to the receivers. The buffer is only read
+   * during the call, so transports can reuse it afterwards.
+   *
+   * @param message The received payload
+   */
+  protected void receive(@NotNull ByteBuffer message) {
+    Objects.requireNonNull(message);
+
+    if (receivers.isEmpty()) return;
+
+    ByteBuffer payload = message;
+
+    if (isTagged(payload)) {
+      payload = payload.duplicate();
+
+      try {
+        if (!acceptOrigin(payload)) return;
+      } catch (IOException e) {
+        logger.severe("Error while reading the origin of an event message");
+        return;
+      }
+    }
+
+    for (Event event : decodeEvents(payload)) {
+      for (Consumer<? super Event> receiver : receivers) {
+        try {
+          receiver.accept(event);
+        } catch (RuntimeException e) {
+          logger.severe("Error while handling a received event");
+          logger.severe(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Decodes every event of a message, see {@link #decodeEvents(ByteBuffer)}
+   *
+   * @param message The message
+   * @return The decoded events, in the order they were published
+   */
+  @NotNull
+  public List<Event> decodeEvents(byte @NotNull [] message) {
+    Objects.requireNonNull(message);
+    return decodeEvents(ByteBuffer.wrap(message));
+  }
+
+  /**
+   * Decodes every event of the remaining bytes of a buffer, heap or direct,
+   * without moving its position. A batched message holds many events and a
+   * plain one holds a single event. Events that can't be decoded are logged
+   * and skipped.
+   *
+   * @param message The message
+   * @return The decoded events, in the order they were published
+   */
+  @NotNull
+  public List<Event> decodeEvents(@NotNull ByteBuffer message) {
+    Objects.requireNonNull(message);
+
+    ByteBuffer input = message.duplicate();
+
+    if (PayloadCompression.isCompressed(input) || isTagged(input)) {
+      try {
+        input = unwrap(input);
+      } catch (IOException e) {
+        logger.severe("Error while unwrapping an event message");
+        if (debug.get()) {
+          throw new RuntimeException(e);
+        }
+
+        return List.of();
+      }
+    }
+
+    if (!input.hasRemaining() || input.get(input.position()) != PayloadFormat.KIND_BATCH) {
+      return decodeEvent(input).map(List::of).orElseGet(List::of);
+    }
+
+    List<Event> events = new ArrayList<>();
+
+    try {
+      input.get();
+      int count = PayloadFormat.readVarInt(input);
+
+      for (int i = 0; i < count; i++) {
+        int length = PayloadFormat.readVarInt(input);
+
+        if (length < 0 || length > input.remaining()) {
+          throw new IOException("Frame " + i + " is out of bounds");
+        }
+
+        decodeEvent(input.slice(input.position(), length)).ifPresent(events::add);
+        input.position(input.position() + length);
+      }
+    } catch (IOException e) {
+      logger.severe("Error while unpacking a batched event message");
+      if (debug.get()) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    return events;
+  }
+
   @NotNull
   public Optional<Event> decodeEvent(byte @NotNull [] message) {
     Objects.requireNonNull(message);
+    return decodeEvent(ByteBuffer.wrap(message));
+  }
+
+  /**
+   * Decodes a single event from the remaining bytes of a buffer,
+   * heap or direct, without moving its position
+   *
+   * @param message The message
+   * @return The event, or empty if it can't be decoded
+   */
+  @NotNull
+  public Optional<Event> decodeEvent(@NotNull ByteBuffer message) {
+    Objects.requireNonNull(message);
 
     try {
-      ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(message));
-      return Optional.of((Event) objectInputStream.readObject());
+      return Optional.of(readEvent(message.duplicate()));
     } catch (Exception e) {
       logger.severe("Error while decoding event from object stream");
       if (debug.get()) {
@@ -69,7 +575,290 @@ public abstract class EventMessenger implements AutoCloseable {
     return Optional.empty();
   }
 
+  /**
+   * Compress the payload if needed and hand it to the transport
+   *
+   * @param owned         If the array belongs to the payload, instead of being a reused buffer
+   * @param coalescingKey The key the payload can be coalesced on in the outbound queue, or null
+   */
+  private void sendPayload(PlayerWrapperBase sender, byte[] payload, int length, boolean owned, Object coalescingKey) {
+    int threshold = compressionThreshold;
+
+    if (threshold >= 0 && length >= threshold) {
+      PayloadBuffer compressed = PayloadBuffer.acquire();
+
+      try {
+        if (PayloadCompression.compress(payload, 0, length, compressed)) {
+          transmit(sender, compressed.array(), compressed.size(), false, coalescingKey);
+          return;
+        }
+      } catch (IOException e) {
+        logger.severe("Error while compressing event payload, sending it uncompressed");
+      } finally {
+        compressed.release();
+      }
+    }
+
+    transmit(sender, payload, length, owned, coalescingKey);
+  }
+
+  private void transmit(PlayerWrapperBase sender, byte[] payload, int length, boolean owned, Object coalescingKey) {
+    UUID origin = nodeId;
+
+    if (origin == null) {
+      handOff(sender, payload, length, owned, coalescingKey);
+      return;
+    }
+
+    PayloadBuffer tagged = PayloadBuffer.acquire();
+
+    try {
+      DataOutputStream dataOutputStream = new DataOutputStream(tagged);
+      dataOutputStream.writeByte(PayloadFormat.KIND_ORIGIN);
+      dataOutputStream.writeLong(origin.getMostSignificantBits());
+      dataOutputStream.writeLong(origin.getLeastSignificantBits());
+      PayloadFormat.writeVarLong(dataOutputStream, sequence.incrementAndGet());
+      dataOutputStream.write(payload, 0, length);
+
+      handOff(sender, tagged.array(), tagged.size(), false, coalescingKey);
+    } catch (IOException e) {
+      // Never thrown while writing to memory
+      throw new UncheckedIOException(e);
+    } finally {
+      tagged.release();
+    }
+  }
+
+  private void handOff(PlayerWrapperBase sender, byte[] payload, int length, boolean owned, Object coalescingKey) {
+    OutboundQueue currentQueue = outboundQueue;
+
+    if (currentQueue != null) {
+      byte[] queued = owned && length == payload.length ? payload : Arrays.copyOf(payload, length);
+
+      // A closed queue hands the payload back to be sent right away
+      if (currentQueue.offer(sender, queued, coalescingKey)) return;
+    }
+
+    handOffNow(sender, payload, length, owned);
+  }
+
+  private void handOffNow(PlayerWrapperBase sender, byte[] payload, int length, boolean owned) {
+    Outbox currentOutbox = outbox;
+
+    // Keep the order, nothing skips the payloads waiting to be replayed
+    if (currentOutbox != null && !currentOutbox.isEmpty()) {
+      keep(currentOutbox, payload, length);
+      return;
+    }
+
+    try {
+      send(sender, payload, length, owned);
+    } catch (TransportUnavailableException e) {
+      if (currentOutbox == null) {
+        logger.warning("The transport is unavailable, an event has been dropped: %s", e.getMessage());
+        return;
+      }
+
+      logger.warning("The transport is unavailable, events are kept in the outbox until it's back: %s", e.getMessage());
+      keep(currentOutbox, payload, length);
+    }
+  }
+
+  private void keep(Outbox currentOutbox, byte[] payload, int length) {
+    try {
+      if (!currentOutbox.append(payload, 0, length)) {
+        logger.warning("The outbox is full, an event has been dropped");
+      }
+    } catch (IOException e) {
+      logger.severe("Error while appending an event to the outbox, it has been dropped");
+      logger.severe(e);
+    }
+  }
+
+  /**
+   * Hand the payloads of the outbox to the transport, oldest first,
+   * until it's empty or the transport is unavailable again
+   */
+  private void replay() {
+    Outbox currentOutbox = outbox;
+
+    if (currentOutbox == null || currentOutbox.isEmpty()) return;
+
+    PlayerWrapperBase sender = outboxSender.get();
+
+    if (sender == null) return;
+
+    long replayed = 0;
+    byte[] payload;
+
+    while ((payload = currentOutbox.peek()) != null) {
+      try {
+        send(sender, payload, payload.length, true);
+      } catch (TransportUnavailableException e) {
+        logger.debug("The transport is still unavailable, %d events are waiting in the outbox", currentOutbox.pendingCount());
+        return;
+      } catch (RuntimeException e) {
+        logger.severe("Error while replaying an event from the outbox, it has been dropped");
+        logger.severe(e);
+      }
+
+      currentOutbox.acknowledge();
+      replayed++;
+    }
+
+    if (replayed > 0) {
+      logger.info("Replayed %d events from the outbox", replayed);
+    }
+  }
+
+  private void send(PlayerWrapperBase sender, byte[] payload, int length, boolean owned) {
+    if (bufferTransport) {
+      publish(sender, ByteBuffer.wrap(payload, 0, length));
+    } else {
+      publish(sender, owned && length == payload.length ? payload : Arrays.copyOf(payload, length));
+    }
+  }
+
+  @Nullable
+  private static Object coalescingKey(Event event) {
+    return event instanceof CoalescingEvent coalescingEvent
+        ? new CoalescingKey(event.getClass(), coalescingEvent.getCoalescingKey())
+        : null;
+  }
+
+  private static boolean isTagged(ByteBuffer payload) {
+    return payload.hasRemaining() && payload.get(payload.position()) == PayloadFormat.KIND_ORIGIN;
+  }
+
+  /**
+   * Read the origin of a tagged payload, leaving the buffer at the start of the wrapped payload
+   *
+   * @return If the payload should be handed to the receivers
+   */
+  private boolean acceptOrigin(ByteBuffer payload) throws IOException {
+    UUID origin;
+    long payloadSequence;
+
+    try {
+      payload.get();
+      origin = new UUID(payload.getLong(), payload.getLong());
+      payloadSequence = PayloadFormat.readVarLong(payload);
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Origin header is truncated", e);
+    }
+
+    if (origin.equals(nodeId)) {
+      suppressedOwn.increment();
+      return false;
+    }
+
+    if (!originFilter.accept(origin, payloadSequence)) {
+      suppressedDuplicates.increment();
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Strip the origin header and the compression of a payload
+   *
+   * @return The wrapped payload
+   */
+  private static ByteBuffer unwrap(ByteBuffer payload) throws IOException {
+    ByteBuffer current = payload.duplicate();
+
+    if (isTagged(current)) {
+      try {
+        current.position(current.position() + 1 + 2 * Long.BYTES);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Origin header is truncated", e);
+      }
+
+      PayloadFormat.readVarLong(current);
+    }
+
+    if (PayloadCompression.isCompressed(current)) {
+      current = ByteBuffer.wrap(PayloadCompression.decompress(current));
+    }
+
+    return current;
+  }
+
+  private void encodeEvent(Event event, PayloadBuffer buffer) throws IOException {
+    EventCodecRegistry.Registration<?> registration = codecRegistry.find(event.getClass());
+
+    if (registration != null) {
+      DataOutputStream dataOutputStream = new DataOutputStream(buffer);
+      dataOutputStream.writeByte(PayloadFormat.KIND_CODEC);
+      PayloadFormat.writeVarInt(dataOutputStream, registration.id());
+      registration.encode(event, dataOutputStream);
+      dataOutputStream.flush();
+    } else {
+      ObjectOutputStream objectOutputStream = new ObjectOutputStream(buffer);
+      objectOutputStream.writeObject(event);
+      objectOutputStream.flush();
+    }
+  }
+
+  private Event readEvent(ByteBuffer message) throws IOException, ClassNotFoundException {
+    if (PayloadCompression.isCompressed(message) || isTagged(message)) {
+      return readEvent(unwrap(message));
+    }
+
+    int position = message.position();
+
+    if (message.remaining() >= 2
+        && message.get(position) == PayloadFormat.STREAM_MAGIC_HIGH
+        && message.get(position + 1) == PayloadFormat.STREAM_MAGIC_LOW) {
+      ObjectInputStream objectInputStream = new ObjectInputStream(new ByteBufferInputStream(message));
+      return (Event) objectInputStream.readObject();
+    }
+
+    if (!message.hasRemaining()) {
+      throw new IOException("Empty payload");
+    }
+
+    int kind = message.get() & 0xFF;
+
+    if (kind == PayloadFormat.KIND_BATCH) {
+      throw new IOException("Batched payloads must be decoded with decodeEvents");
+    }
+
+    if (kind != PayloadFormat.KIND_CODEC) {
+      throw new IOException("Unknown payload kind " + kind);
+    }
+
+    int id = PayloadFormat.readVarInt(message);
+    EventCodecRegistry.Registration<?> registration = codecRegistry.find(id);
+
+    if (registration == null) {
+      throw new IOException("No codec registered for id " + id);
+    }
+
+    return registration.decode(new DataInputStream(new ByteBufferInputStream(message)));
+  }
+
+  private static boolean overridesBufferPublish(Class<?> type) {
+    try {
+      return type.getMethod("publish", PlayerWrapperBase.class, ByteBuffer.class).getDeclaringClass() != EventMessenger.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Closes the messenger, sending the pending batches and the queued payloads,
+   * the payloads of the outbox stay on disk. Implementations overriding it must
+   * call {@code super.close()} before shutting down their transport.
+   */
   @Override
   public void close() throws Exception {
+    disableBatching();
+    disableOutboundQueue();
+    disableOutbox();
+  }
+
+  private record CoalescingKey(Class<?> type, Object key) {
   }
 }
@@ -0,0 +1,141 @@
+package com.nookure.core.messaging;
+
+import com.nookure.core.PlayerWrapperBase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Groups encoded events by sender and frames them into a single
+ * {@link PayloadFormat#KIND_BATCH} payload.
+ * <p>
+ * A batch is sent as soon as it reaches its byte budget, when the flush
+ * interval elapses, or when {@link #flushAll()} is called. A batch holding
+ * a single event is sent as a plain payload, without framing.
+ */
+final class MessageBatcher implements AutoCloseable {
+  private final int maxBytes;
+  private final BiConsumer<PlayerWrapperBase, byte[]> transport;
+  private final Map<PlayerWrapperBase, Batch> batches = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler;
+
+  MessageBatcher(int maxBytes, @NotNull Duration flushInterval, @NotNull BiConsumer<PlayerWrapperBase, byte[]> transport) {
+    this.maxBytes = maxBytes;
+    this.transport = transport;
+
+    if (flushInterval.isZero() || flushInterval.isNegative()) {
+      this.scheduler = null;
+      return;
+    }
+
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "NookCore Messenger Batcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long interval = flushInterval.toNanos();
+    scheduler.scheduleAtFixedRate(this::flushAll, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  void add(@NotNull PlayerWrapperBase sender, byte @NotNull [] payload) {
+    while (true) {
+      Batch batch = batches.computeIfAbsent(sender, key -> new Batch());
+
+      synchronized (batch) {
+        // The batch was flushed between the lookup and the lock, start a new one
+        if (batch.closed) continue;
+
+        batch.append(payload);
+
+        if (batch.size() >= maxBytes) {
+          batches.remove(sender, batch);
+          send(sender, batch);
+        }
+
+        return;
+      }
+    }
+  }
+
+  void flushAll() {
+    for (PlayerWrapperBase sender : batches.keySet()) {
+      Batch batch = batches.remove(sender);
+
+      if (batch == null) continue;
+
+      synchronized (batch) {
+        if (!batch.closed) {
+          send(sender, batch);
+        }
+      }
+    }
+  }
+
+  private void send(PlayerWrapperBase sender, Batch batch) {
+    batch.closed = true;
+    transport.accept(sender, batch.toPayload());
+  }
+
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+
+    flushAll();
+  }
+
+  private static final class Batch {
+    private final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(frames);
+    private byte[] single;
+    private int count;
+    private boolean closed;
+
+    void append(byte[] payload) {
+      try {
+        if (count == 0) {
+          single = payload;
+        }
+
+        PayloadFormat.writeVarInt(output, payload.length);
+        output.write(payload);
+        count++;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    int size() {
+      return frames.size();
+    }
+
+    byte[] toPayload() {
+      if (count == 1) return single;
+
+      ByteArrayOutputStream payload = new ByteArrayOutputStream(1 + PayloadFormat.varIntSize(count) + frames.size());
+
+      try {
+        DataOutputStream header = new DataOutputStream(payload);
+        header.writeByte(PayloadFormat.KIND_BATCH);
+        PayloadFormat.writeVarInt(header, count);
+        frames.writeTo(payload);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      return payload.toByteArray();
+    }
+  }
+}
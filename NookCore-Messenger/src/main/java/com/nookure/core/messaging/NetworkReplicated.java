@@ -0,0 +1,19 @@
+package com.nookure.core.messaging;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event type to be replicated to the other nodes by the {@link EventBridge}.
+ * <p>
+ * Replicated events are published when fired locally, and fired locally
+ * when received from another node. Subclasses are replicated as well.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface NetworkReplicated {
+}
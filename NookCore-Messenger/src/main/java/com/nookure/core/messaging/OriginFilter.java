@@ -0,0 +1,77 @@
+package com.nookure.core.messaging;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops the tagged payloads that were already received.
+ * <p>
+ * Every origin node gets a sliding window over its last {@link #WINDOW}
+ * sequence numbers, so payloads arriving slightly out of order are still
+ * accepted once, while anything older than the window is dropped. The
+ * least recently seen origins are forgotten past {@link #MAX_ORIGINS}.
+ */
+final class OriginFilter {
+  static final int WINDOW = Long.SIZE;
+  static final int MAX_ORIGINS = 1024;
+
+  private final Map<UUID, Window> windows = new ConcurrentHashMap<>();
+
+  /**
+   * Check if a payload wasn't received yet, and remember it
+   *
+   * @param origin   The node that published the payload
+   * @param sequence The sequence number of the payload
+   * @return {@code true} the first time a payload is seen
+   */
+  boolean accept(@NotNull UUID origin, long sequence) {
+    Window window = windows.get(origin);
+
+    if (window == null) {
+      if (windows.size() >= MAX_ORIGINS) {
+        evictLeastRecentlySeen();
+      }
+
+      window = windows.computeIfAbsent(origin, key -> new Window());
+    }
+
+    return window.accept(sequence);
+  }
+
+  private void evictLeastRecentlySeen() {
+    windows.entrySet().stream()
+        .min((first, second) -> Long.compare(first.getValue().lastSeen, second.getValue().lastSeen))
+        .ifPresent(entry -> windows.remove(entry.getKey(), entry.getValue()));
+  }
+
+  private static final class Window {
+    private long highest;
+    private long seen;
+    private volatile long lastSeen;
+
+    synchronized boolean accept(long sequence) {
+      lastSeen = System.nanoTime();
+
+      if (sequence > highest) {
+        long shift = sequence - highest;
+        seen = shift >= WINDOW ? 1 : (seen << shift) | 1;
+        highest = sequence;
+        return true;
+      }
+
+      long age = highest - sequence;
+
+      if (age >= WINDOW) return false;
+
+      long bit = 1L << age;
+
+      if ((seen & bit) != 0) return false;
+
+      seen |= bit;
+      return true;
+    }
+  }
+}
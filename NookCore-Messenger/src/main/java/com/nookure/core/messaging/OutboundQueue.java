@@ -0,0 +1,231 @@
+package com.nookure.core.messaging;
+
+import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.logger.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded queue of payloads in front of a transport, drained by a single
+ * writer thread, so a stalled transport doesn't stall the publishing threads.
+ */
+final class OutboundQueue implements AutoCloseable {
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private final int capacity;
+  private final OverflowPolicy policy;
+  private final BiConsumer<PlayerWrapperBase, byte[]> transport;
+  private final Logger logger;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+  private final Map<Object, Entry> entriesByKey = new HashMap<>();
+  private final Thread writer;
+  private boolean closed;
+
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAdder totalSendNanos = new LongAdder();
+  private final AtomicLong maxSendNanos = new AtomicLong();
+
+  OutboundQueue(int capacity, @NotNull OverflowPolicy policy, @NotNull Logger logger, @NotNull BiConsumer<PlayerWrapperBase, byte[]> transport) {
+    this.capacity = capacity;
+    this.policy = policy;
+    this.logger = logger;
+    this.transport = transport;
+    this.writer = new Thread(this::drain, "NookCore Messenger Writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Queue a payload, or drop one, following the overflow policy
+   *
+   * @param sender        The sender of the payload
+   * @param payload       The payload, owned by the queue from now on
+   * @param coalescingKey The key of the payload, or null if it can't be coalesced
+   * @return {@code false} if the queue is closed and the payload must be sent by the caller
+   */
+  boolean offer(@NotNull PlayerWrapperBase sender, byte @NotNull [] payload, @Nullable Object coalescingKey) {
+    lock.lock();
+
+    try {
+      if (closed) return false;
+
+      if (policy == OverflowPolicy.COALESCE && coalescingKey != null) {
+        Entry queued = entriesByKey.get(coalescingKey);
+
+        if (queued != null) {
+          queued.sender = sender;
+          queued.payload = payload;
+          // The wait is measured for the payload that is actually sent
+          queued.enqueuedAt = System.nanoTime();
+          coalesced.increment();
+          return true;
+        }
+      }
+
+      while (entries.size() >= capacity) {
+        switch (policy) {
+          case BLOCK -> {
+            notFull.awaitUninterruptibly();
+
+            if (closed) return false;
+          }
+          case DROP_NEWEST -> {
+            dropped.increment();
+            return true;
+          }
+          case DROP_OLDEST, COALESCE -> {
+            Entry oldest = entries.poll();
+            forget(oldest);
+            dropped.increment();
+          }
+        }
+      }
+
+      Entry entry = new Entry(sender, payload, coalescingKey, System.nanoTime());
+      entries.add(entry);
+
+      if (policy == OverflowPolicy.COALESCE && coalescingKey != null) {
+        entriesByKey.put(coalescingKey, entry);
+      }
+
+      enqueued.increment();
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      Entry entry;
+
+      lock.lock();
+
+      try {
+        while (entries.isEmpty()) {
+          if (closed) return;
+
+          notEmpty.awaitUninterruptibly();
+        }
+
+        entry = entries.poll();
+        forget(entry);
+        notFull.signal();
+      } finally {
+        lock.unlock();
+      }
+
+      long start = System.nanoTime();
+      totalWaitNanos.add(start - entry.enqueuedAt);
+
+      try {
+        transport.accept(entry.sender, entry.payload);
+        sent.increment();
+      } catch (RuntimeException e) {
+        failed.increment();
+        logger.severe("Error while sending a queued event payload");
+        logger.severe(e);
+      }
+
+      long took = System.nanoTime() - start;
+      totalSendNanos.add(took);
+      maxSendNanos.accumulateAndGet(took, Math::max);
+    }
+  }
+
+  private void forget(Entry entry) {
+    if (entry != null && entry.coalescingKey != null) {
+      entriesByKey.remove(entry.coalescingKey, entry);
+    }
+  }
+
+  @NotNull
+  OutboundQueueStatistics statistics() {
+    int depth;
+
+    lock.lock();
+
+    try {
+      depth = entries.size();
+    } finally {
+      lock.unlock();
+    }
+
+    long sentCount = sent.sum();
+    long handled = sentCount + failed.sum();
+
+    return new OutboundQueueStatistics(
+        policy,
+        capacity,
+        depth,
+        enqueued.sum(),
+        sentCount,
+        dropped.sum(),
+        coalesced.sum(),
+        failed.sum(),
+        handled == 0 ? 0 : totalWaitNanos.sum() / handled,
+        handled == 0 ? 0 : totalSendNanos.sum() / handled,
+        maxSendNanos.get()
+    );
+  }
+
+  /**
+   * Stop accepting payloads and wait for the queued ones to be sent
+   */
+  @Override
+  public void close() {
+    lock.lock();
+
+    try {
+      closed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    if (Thread.currentThread() == writer) return;
+
+    try {
+      writer.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (writer.isAlive()) {
+      logger.warning("The messenger writer didn't drain its queue in time, %d payloads may be lost", statistics().depth());
+    }
+  }
+
+  private static final class Entry {
+    private final Object coalescingKey;
+    private long enqueuedAt;
+    private PlayerWrapperBase sender;
+    private byte[] payload;
+
+    private Entry(PlayerWrapperBase sender, byte[] payload, Object coalescingKey, long enqueuedAt) {
+      this.sender = sender;
+      this.payload = payload;
+      this.coalescingKey = coalescingKey;
+      this.enqueuedAt = enqueuedAt;
+    }
+  }
+}
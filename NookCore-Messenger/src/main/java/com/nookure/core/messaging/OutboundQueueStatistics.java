@@ -0,0 +1,33 @@
+package com.nookure.core.messaging;
+
+/**
+ * A snapshot of the activity of the outbound queue of an {@link EventMessenger}.
+ *
+ * @param policy            The overflow policy of the queue
+ * @param capacity          The maximum amount of queued payloads
+ * @param depth             The amount of payloads queued right now
+ * @param enqueued          The amount of payloads queued since the queue was enabled
+ * @param sent              The amount of payloads handed to the transport
+ * @param dropped           The amount of payloads dropped because the queue was full
+ * @param coalesced         The amount of payloads replaced by a newer one of the same key
+ * @param failed            The amount of payloads the transport failed to send
+ * @param averageWaitNanos  The average time a payload spent in the queue
+ * @param averageSendNanos  The average time the transport took to send a payload
+ * @param maxSendNanos      The longest time the transport took to send a payload
+ * @see EventMessenger#getOutboundQueueStatistics()
+ * @since 1.1.0
+ */
+public record OutboundQueueStatistics(
+    OverflowPolicy policy,
+    int capacity,
+    int depth,
+    long enqueued,
+    long sent,
+    long dropped,
+    long coalesced,
+    long failed,
+    long averageWaitNanos,
+    long averageSendNanos,
+    long maxSendNanos
+) {
+}
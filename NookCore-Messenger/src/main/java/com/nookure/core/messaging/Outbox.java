@@ -0,0 +1,337 @@
+package com.nookure.core.messaging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of the payloads the transport couldn't send, kept in
+ * memory-mapped segment files so it survives a restart.
+ * <p>
+ * A record is its length as an int, the CRC32C of the payload as an int and
+ * the payload, a zero length marks the end of the written records. Segments
+ * roll once full, the position of the next record to replay is kept in a
+ * checkpoint file, and segments are deleted once all their records have
+ * been acknowledged. A record torn by a crash fails its checksum and ends
+ * the log, it's overwritten by the next append.
+ */
+final class Outbox implements AutoCloseable {
+  static final int SEGMENT_BYTES = 4 << 20;
+  private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String CHECKPOINT_FILE = "outbox.checkpoint";
+
+  private final Path folder;
+  private final long maxBytes;
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private final FileChannel checkpointChannel;
+  private final MappedByteBuffer checkpoint;
+  private final CRC32C crc = new CRC32C();
+  private int readPosition;
+  private long pendingRecords;
+  private boolean closed;
+
+  private Outbox(Path folder, long maxBytes) throws IOException {
+    this.folder = folder;
+    this.maxBytes = maxBytes;
+    this.checkpointChannel = FileChannel.open(
+        folder.resolve(CHECKPOINT_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+    );
+    this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * Long.BYTES);
+  }
+
+  /**
+   * Open the outbox of a folder, picking up the records left by a previous run
+   *
+   * @param folder   The folder of the segment files
+   * @param maxBytes The maximum size of all the segments together
+   * @return The outbox
+   */
+  @NotNull
+  static Outbox open(@NotNull Path folder, long maxBytes) throws IOException {
+    Files.createDirectories(folder);
+
+    Outbox outbox = new Outbox(folder, maxBytes);
+
+    try {
+      outbox.recover();
+    } catch (IOException e) {
+      outbox.close();
+      throw e;
+    }
+
+    return outbox;
+  }
+
+  private void recover() throws IOException {
+    long checkpointSegment = checkpoint.getLong(0);
+    int checkpointPosition = (int) checkpoint.getLong(Long.BYTES);
+    List<Long> ids = new ArrayList<>();
+
+    try (Stream<Path> files = Files.list(folder)) {
+      files.map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+          .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+          .sorted()
+          .forEach(ids::add);
+    }
+
+    for (long id : ids) {
+      if (id < checkpointSegment) {
+        // Acknowledged, but it couldn't be deleted while mapped
+        Files.deleteIfExists(segmentPath(id));
+        continue;
+      }
+
+      Segment segment = Segment.open(segmentPath(id), id, 0);
+      segment.writePosition = scan(segment, 0);
+      segments.add(segment);
+    }
+
+    if (segments.isEmpty()) {
+      segments.add(Segment.open(segmentPath(Math.max(checkpointSegment, 1)), Math.max(checkpointSegment, 1), SEGMENT_BYTES));
+    }
+
+    Segment first = segments.peekFirst();
+    readPosition = first.id == checkpointSegment ? Math.min(checkpointPosition, first.writePosition) : 0;
+
+    for (Segment segment : segments) {
+      int position = segment == first ? readPosition : 0;
+
+      while (position < segment.writePosition) {
+        position += RECORD_HEADER_BYTES + segment.buffer.getInt(position);
+        pendingRecords++;
+      }
+    }
+
+    saveCheckpoint();
+  }
+
+  /**
+   * Find the end of the valid records of a segment
+   */
+  private int scan(Segment segment, int from) {
+    int position = from;
+
+    while (position + RECORD_HEADER_BYTES <= segment.capacity()) {
+      int length = segment.buffer.getInt(position);
+
+      if (length <= 0 || position + RECORD_HEADER_BYTES + length > segment.capacity()) break;
+      if (checksum(segment, position + RECORD_HEADER_BYTES, length) != segment.buffer.getInt(position + Integer.BYTES)) break;
+
+      position += RECORD_HEADER_BYTES + length;
+    }
+
+    return position;
+  }
+
+  synchronized boolean isEmpty() {
+    return pendingRecords == 0;
+  }
+
+  synchronized long pendingCount() {
+    return pendingRecords;
+  }
+
+  /**
+   * Append a record
+   *
+   * @return {@code false} if the outbox is full or closed and the record was dropped
+   */
+  synchronized boolean append(byte @NotNull [] payload, int offset, int length) throws IOException {
+    if (closed) return false;
+
+    Segment segment = segments.peekLast();
+    int needed = RECORD_HEADER_BYTES + length;
+
+    if (segment.writePosition + needed > segment.capacity()) {
+      long size = Math.max(SEGMENT_BYTES, needed + Integer.BYTES);
+
+      if (mappedBytes() + size > maxBytes) return false;
+
+      segment = Segment.open(segmentPath(segment.id + 1), segment.id + 1, size);
+      segments.add(segment);
+    }
+
+    int position = segment.writePosition;
+    segment.buffer.put(position + RECORD_HEADER_BYTES, payload, offset, length);
+    segment.buffer.putInt(position + Integer.BYTES, checksum(segment, position + RECORD_HEADER_BYTES, length));
+    // The length goes last, so a record is only visible once complete
+    segment.buffer.putInt(position, length);
+
+    // Mark the end, in case the segment is reused after a torn record
+    if (position + needed + Integer.BYTES <= segment.capacity()) {
+      segment.buffer.putInt(position + needed, 0);
+    }
+
+    segment.writePosition = position + needed;
+    pendingRecords++;
+    return true;
+  }
+
+  /**
+   * Get a copy of the oldest record that wasn't acknowledged
+   *
+   * @return The record, or null if there's none
+   */
+  @Nullable
+  synchronized byte[] peek() {
+    if (closed) return null;
+
+    Segment segment = readSegment();
+
+    if (segment == null) return null;
+
+    int length = segment.buffer.getInt(readPosition);
+    byte[] payload = new byte[length];
+    segment.buffer.get(readPosition + RECORD_HEADER_BYTES, payload);
+    return payload;
+  }
+
+  /**
+   * Acknowledge the record returned by the last {@link #peek()}
+   */
+  synchronized void acknowledge() {
+    if (closed) return;
+
+    Segment segment = readSegment();
+
+    if (segment == null) return;
+
+    readPosition += RECORD_HEADER_BYTES + segment.buffer.getInt(readPosition);
+    pendingRecords--;
+    saveCheckpoint();
+  }
+
+  /**
+   * Move to the segment holding the next record, deleting the segments left behind
+   *
+   * @return The segment, or null if every record was acknowledged
+   */
+  private Segment readSegment() {
+    while (true) {
+      Segment segment = segments.peekFirst();
+
+      if (readPosition < segment.writePosition) return segment;
+
+      if (segments.size() == 1) {
+        // Everything was acknowledged, start the segment over instead of growing it
+        if (readPosition > 0) {
+          segment.buffer.putInt(0, 0);
+          segment.writePosition = 0;
+          readPosition = 0;
+          saveCheckpoint();
+        }
+
+        return null;
+      }
+
+      segments.poll();
+      readPosition = 0;
+      saveCheckpoint();
+      segment.delete();
+    }
+  }
+
+  private void saveCheckpoint() {
+    // The position goes first, a crash in between pairs the new position with the
+    // old segment, whose records are then replayed again instead of skipped
+    checkpoint.putLong(Long.BYTES, readPosition);
+    checkpoint.putLong(0, segments.peekFirst().id);
+  }
+
+  private long mappedBytes() {
+    long total = 0;
+
+    for (Segment segment : segments) {
+      total += segment.capacity();
+    }
+
+    return total;
+  }
+
+  private int checksum(Segment segment, int position, int length) {
+    crc.reset();
+    crc.update(segment.buffer.slice(position, length));
+    return (int) crc.getValue();
+  }
+
+  private Path segmentPath(long id) {
+    return folder.resolve(SEGMENT_PREFIX + String.format("%020d", id) + SEGMENT_SUFFIX);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) return;
+
+    closed = true;
+    checkpoint.force();
+
+    for (Segment segment : segments) {
+      segment.buffer.force();
+      segment.channel.close();
+    }
+
+    segments.clear();
+    checkpointChannel.close();
+  }
+
+  private static final class Segment {
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+
+    private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+
+    /**
+     * Map a segment file
+     *
+     * @param size The size of a new segment, existing segments keep their size
+     */
+    static Segment open(Path path, long id, long size) throws IOException {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+      try {
+        long mapped = Math.max(channel.size(), size);
+        return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mapped));
+      } catch (IOException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    int capacity() {
+      return buffer.capacity();
+    }
+
+    void delete() {
+      try {
+        channel.close();
+        Files.deleteIfExists(path);
+      } catch (IOException ignored) {
+        // Still mapped on some platforms, it's deleted on the next start
+      }
+    }
+  }
+}
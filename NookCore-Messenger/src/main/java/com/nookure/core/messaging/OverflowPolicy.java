@@ -0,0 +1,31 @@
+package com.nookure.core.messaging;
+
+import com.nookure.core.event.CoalescingEvent;
+
+/**
+ * What the outbound queue of an {@link EventMessenger} does with a
+ * payload published while it's full.
+ *
+ * @see EventMessenger#enableOutboundQueue(int, OverflowPolicy)
+ * @since 1.1.0
+ */
+public enum OverflowPolicy {
+  /**
+   * The publishing thread waits until there's room in the queue
+   */
+  BLOCK,
+  /**
+   * The oldest queued payload is dropped to make room
+   */
+  DROP_OLDEST,
+  /**
+   * The published payload is dropped
+   */
+  DROP_NEWEST,
+  /**
+   * A {@link CoalescingEvent} replaces the queued payload of the same type and
+   * key, keeping its place in the queue, whether the queue is full or not.
+   * Otherwise, the oldest queued payload is dropped to make room.
+   */
+  COALESCE
+}
@@ -0,0 +1,82 @@
+package com.nookure.core.messaging;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A growable byte buffer kept per thread, so encoding a payload doesn't
+ * allocate and grow a new array every time.
+ * <p>
+ * Buffers are taken with {@link #acquire()} and must be given back with
+ * {@link #release()}. Each thread keeps {@link #RETAINED_PER_THREAD} buffers,
+ * so encoding, compressing and tagging can each hold one, deeper nesting gets a throwaway
+ * buffer, and buffers that grew past {@link #MAX_RETAINED_BYTES} are shrunk
+ * on release so a single huge payload doesn't stay pinned to the thread.
+ */
+final class PayloadBuffer extends ByteArrayOutputStream {
+  private static final int INITIAL_BYTES = 512;
+  private static final int MAX_RETAINED_BYTES = 1 << 20;
+  private static final int RETAINED_PER_THREAD = 3;
+  private static final ThreadLocal<PayloadBuffer[]> BUFFERS = ThreadLocal.withInitial(() -> {
+    PayloadBuffer[] buffers = new PayloadBuffer[RETAINED_PER_THREAD];
+
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = new PayloadBuffer(true);
+    }
+
+    return buffers;
+  });
+
+  private final boolean retained;
+  private boolean inUse;
+
+  private PayloadBuffer(boolean retained) {
+    super(INITIAL_BYTES);
+    this.retained = retained;
+  }
+
+  @NotNull
+  static PayloadBuffer acquire() {
+    for (PayloadBuffer buffer : BUFFERS.get()) {
+      if (!buffer.inUse) {
+        buffer.inUse = true;
+        return buffer;
+      }
+    }
+
+    return new PayloadBuffer(false);
+  }
+
+  /**
+   * Get the backing array, only the first {@link #size()} bytes are meaningful
+   *
+   * @return The backing array
+   */
+  byte[] array() {
+    return buf;
+  }
+
+  /**
+   * Wrap the written bytes without copying them, the buffer is only
+   * valid until this payload buffer is released
+   *
+   * @return The written bytes
+   */
+  @NotNull
+  ByteBuffer asByteBuffer() {
+    return ByteBuffer.wrap(buf, 0, count);
+  }
+
+  void release() {
+    if (!retained) return;
+
+    if (buf.length > MAX_RETAINED_BYTES) {
+      buf = new byte[INITIAL_BYTES];
+    }
+
+    reset();
+    inUse = false;
+  }
+}
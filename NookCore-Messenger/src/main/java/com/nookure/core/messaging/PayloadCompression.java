@@ -0,0 +1,113 @@
+package com.nookure.core.messaging;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates payloads into {@link PayloadFormat#KIND_COMPRESSED} payloads and back.
+ * <p>
+ * The deflater, the inflater and the scratch buffers are kept per thread,
+ * compressing a payload doesn't allocate.
+ */
+final class PayloadCompression {
+  /**
+   * Refuse to inflate payloads claiming to be bigger than this
+   */
+  static final int MAX_INFLATED_BYTES = 64 << 20;
+  private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+  private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+  private static final ThreadLocal<byte[]> CHUNKS = ThreadLocal.withInitial(() -> new byte[8192]);
+
+  private PayloadCompression() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Compress a payload into the given buffer
+   *
+   * @param payload The payload to compress
+   * @param offset  The offset of the payload in the array
+   * @param length  The length of the payload
+   * @param output  The buffer the compressed payload is written to
+   * @return {@code false} if compressing doesn't make the payload smaller,
+   * the content of the output buffer is then undefined
+   */
+  static boolean compress(byte @NotNull [] payload, int offset, int length, @NotNull PayloadBuffer output) throws IOException {
+    Deflater deflater = DEFLATERS.get();
+    byte[] chunk = CHUNKS.get();
+
+    DataOutputStream header = new DataOutputStream(output);
+    header.writeByte(PayloadFormat.KIND_COMPRESSED);
+    PayloadFormat.writeVarInt(header, length);
+
+    deflater.reset();
+    deflater.setInput(payload, offset, length);
+    deflater.finish();
+
+    while (!deflater.finished()) {
+      int written = deflater.deflate(chunk);
+      output.write(chunk, 0, written);
+
+      if (output.size() >= length) return false;
+    }
+
+    return true;
+  }
+
+  static boolean isCompressed(@NotNull ByteBuffer payload) {
+    return payload.hasRemaining() && payload.get(payload.position()) == PayloadFormat.KIND_COMPRESSED;
+  }
+
+  /**
+   * Inflate the remaining bytes of a {@link PayloadFormat#KIND_COMPRESSED} payload,
+   * the position of the buffer is left untouched
+   *
+   * @param payload The compressed payload
+   * @return The original payload
+   * @throws IOException If the payload is malformed or too big
+   */
+  static byte @NotNull [] decompress(@NotNull ByteBuffer payload) throws IOException {
+    ByteBuffer input = payload.duplicate();
+    input.get();
+    int length = PayloadFormat.readVarInt(input);
+
+    if (length < 0 || length > MAX_INFLATED_BYTES) {
+      throw new IOException("Compressed payload claims an invalid size of " + length + " bytes");
+    }
+
+    Inflater inflater = INFLATERS.get();
+    byte[] inflated = new byte[length];
+
+    try {
+      inflater.reset();
+      inflater.setInput(input);
+
+      int read = 0;
+
+      while (read < length && !inflater.finished()) {
+        int count = inflater.inflate(inflated, read, length - read);
+
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+
+        read += count;
+      }
+
+      if (read != length) {
+        throw new IOException("Compressed payload is truncated");
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Compressed payload is malformed", e);
+    } finally {
+      // The inflater holds on to the buffer until the next reset
+      inflater.reset();
+    }
+
+    return inflated;
+  }
+}
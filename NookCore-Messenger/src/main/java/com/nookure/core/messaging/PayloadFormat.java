@@ -0,0 +1,118 @@
+package com.nookure.core.messaging;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of the payloads written by the {@link EventMessenger}.
+ * <p>
+ * Events without a codec are written as a plain Java serialization stream,
+ * recognised by its {@code 0xACED} magic, so payloads of older versions
+ * still decode. Every other payload starts with a kind byte.
+ */
+final class PayloadFormat {
+  /**
+   * A codec id as a var int, followed by the fields written by the codec
+   */
+  static final int KIND_CODEC = 0x01;
+  /**
+   * The amount of frames as a var int, followed by every frame as
+   * its length in a var int and a complete single event payload
+   */
+  static final int KIND_BATCH = 0x02;
+  /**
+   * The size of the original payload as a var int, followed by the
+   * original payload, of any kind, deflated
+   */
+  static final int KIND_COMPRESSED = 0x03;
+  /**
+   * The id of the node that published the payload as two longs and its
+   * sequence number as a var long, followed by the payload, of any kind
+   */
+  static final int KIND_ORIGIN = 0x04;
+  static final byte STREAM_MAGIC_HIGH = (byte) 0xAC;
+  static final byte STREAM_MAGIC_LOW = (byte) 0xED;
+
+  private PayloadFormat() {
+    throw new UnsupportedOperationException();
+  }
+
+  static void writeVarInt(DataOutput output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    output.writeByte(value);
+  }
+
+  static void writeVarLong(DataOutput output, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    output.writeByte((int) value);
+  }
+
+  static int varIntSize(int value) {
+    int size = 1;
+
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      size++;
+    }
+
+    return size;
+  }
+
+  static int readVarInt(DataInput input) throws IOException {
+    int value = 0;
+
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte current = input.readByte();
+      value |= (current & 0x7F) << shift;
+
+      if ((current & 0x80) == 0) return value;
+    }
+
+    throw new IOException("Var int is too big");
+  }
+
+  static int readVarInt(ByteBuffer input) throws IOException {
+    int value = 0;
+
+    try {
+      for (int shift = 0; shift < 35; shift += 7) {
+        byte current = input.get();
+        value |= (current & 0x7F) << shift;
+
+        if ((current & 0x80) == 0) return value;
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Var int is truncated", e);
+    }
+
+    throw new IOException("Var int is too big");
+  }
+
+  static long readVarLong(ByteBuffer input) throws IOException {
+    long value = 0;
+
+    try {
+      for (int shift = 0; shift < 70; shift += 7) {
+        byte current = input.get();
+        value |= (long) (current & 0x7F) << shift;
+
+        if ((current & 0x80) == 0) return value;
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Var long is truncated", e);
+    }
+
+    throw new IOException("Var long is too big");
+  }
+}
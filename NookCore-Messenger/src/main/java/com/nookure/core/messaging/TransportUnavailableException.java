@@ -0,0 +1,15 @@
+package com.nookure.core.messaging;
+
+/**
+ * Thrown by the publish methods of a transport that can't take a payload right
+ * now, e.g. because it's disconnected or backed up. The messenger keeps the
+ * payload in its outbox when one is enabled, and drops it otherwise.
+ *
+ * @see EventMessenger#enableOutbox(java.nio.file.Path, java.util.function.Supplier, long)
+ * @since 1.1.0
+ */
+public class TransportUnavailableException extends RuntimeException {
+  public TransportUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,39 @@
+package com.nookure.core.messaging.codec;
+
+import com.nookure.core.event.Event;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A compact binary codec for one event type.
+ * <p>
+ * Codecs only write the fields of the event, the type itself is
+ * identified by the numeric id it was registered with, see
+ * {@link EventCodecRegistry#register(int, Class, EventCodec)}.
+ *
+ * @param <T> The event type
+ * @since 1.1.0
+ */
+public interface EventCodec<T extends Event> {
+  /**
+   * Write the event fields
+   *
+   * @param event  The event to encode
+   * @param output The output to write to
+   * @throws IOException If the output fails
+   */
+  void encode(@NotNull T event, @NotNull DataOutput output) throws IOException;
+
+  /**
+   * Read an event written by {@link #encode(Event, DataOutput)}
+   *
+   * @param input The input to read from
+   * @return The decoded event
+   * @throws IOException If the input fails or is malformed
+   */
+  @NotNull
+  T decode(@NotNull DataInput input) throws IOException;
+}
@@ -0,0 +1,131 @@
+package com.nookure.core.messaging.codec;
+
+import com.google.inject.Singleton;
+import com.nookure.core.event.Event;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps event types to a numeric id and an {@link EventCodec}.
+ * <p>
+ * The {@link com.nookure.core.messaging.EventMessenger} encodes registered
+ * event types with their codec, and falls back to Java serialization for
+ * every other type. Ids are written on the wire, so every node must
+ * register the same types under the same ids.
+ * <p>
+ * You can get the instance of this class by injecting it,
+ * see {@link com.google.inject.Injector#getInstance(Class)}
+ *
+ * @since 1.1.0
+ */
+@Singleton
+public class EventCodecRegistry {
+  private final Map<Class<?>, Registration<?>> byType = new ConcurrentHashMap<>();
+  private final Map<Integer, Registration<?>> byId = new ConcurrentHashMap<>();
+
+  /**
+   * Register the codec of an event type
+   *
+   * @param id    The id of the type on the wire, it must not be negative
+   * @param type  The exact event class the codec handles
+   * @param codec The codec
+   * @throws IllegalArgumentException If the id or the type are already registered
+   */
+  public synchronized <T extends Event> void register(int id, @NotNull Class<T> type, @NotNull EventCodec<T> codec) {
+    Objects.requireNonNull(type, "Type cannot be null");
+    Objects.requireNonNull(codec, "Codec cannot be null");
+
+    if (id < 0) {
+      throw new IllegalArgumentException("Codec id cannot be negative");
+    }
+
+    if (byId.containsKey(id)) {
+      throw new IllegalArgumentException("Codec id " + id + " is already registered for " + byId.get(id).type().getName());
+    }
+
+    if (byType.containsKey(type)) {
+      throw new IllegalArgumentException("A codec is already registered for " + type.getName());
+    }
+
+    Registration<T> registration = new Registration<>(id, type, codec);
+    byType.put(type, registration);
+    byId.put(id, registration);
+  }
+
+  /**
+   * Unregister the codec of an event type
+   *
+   * @param type The event class
+   */
+  public synchronized void unregister(@NotNull Class<? extends Event> type) {
+    Objects.requireNonNull(type, "Type cannot be null");
+
+    Registration<?> registration = byType.remove(type);
+
+    if (registration != null) {
+      byId.remove(registration.id());
+    }
+  }
+
+  /**
+   * Get the registration of an event type
+   *
+   * @param type The exact event class
+   * @return The registration, or null if the type has no codec
+   */
+  @Nullable
+  public Registration<?> find(@NotNull Class<?> type) {
+    return byType.get(type);
+  }
+
+  /**
+   * Get the registration of a codec id
+   *
+   * @param id The codec id
+   * @return The registration, or null if the id is unknown
+   */
+  @Nullable
+  public Registration<?> find(int id) {
+    return byId.get(id);
+  }
+
+  /**
+   * A registered codec.
+   *
+   * @param id    The id of the type on the wire
+   * @param type  The event class
+   * @param codec The codec
+   * @param <T>   The event type
+   */
+  public record Registration<T extends Event>(int id, @NotNull Class<T> type, @NotNull EventCodec<T> codec) {
+    /**
+     * Encode an event of this registration type
+     *
+     * @param event  The event, it must be an instance of {@link #type()}
+     * @param output The output to write to
+     * @throws IOException If the output fails
+     */
+    public void encode(@NotNull Event event, @NotNull DataOutput output) throws IOException {
+      codec.encode(type.cast(event), output);
+    }
+
+    /**
+     * Decode an event of this registration type
+     *
+     * @param input The input to read from
+     * @return The decoded event
+     * @throws IOException If the input fails or is malformed
+     */
+    @NotNull
+    public T decode(@NotNull DataInput input) throws IOException {
+      return codec.decode(input);
+    }
+  }
+}
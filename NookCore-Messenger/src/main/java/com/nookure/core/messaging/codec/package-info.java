@@ -0,0 +1,4 @@
+/**
+ * This package contains the binary codecs used to send events through the messenger
+ */
+package com.nookure.core.messaging.codec;
@@ -0,0 +1,50 @@
+package com.nookure.core.messaging.local;
+
+import com.google.inject.Inject;
+import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.messaging.EventMessenger;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An {@link EventMessenger} delivering payloads in memory to every messenger
+ * of its {@link LoopbackHub}, itself included, like a broker would.
+ * <p>
+ * Payloads are delivered on the publishing thread before {@code publish}
+ * returns, without being copied.
+ */
+public class LoopbackEventMessenger extends EventMessenger {
+  @Inject
+  private LoopbackHub hub;
+
+  @Override
+  public void prepare() {
+    hub.join(this);
+  }
+
+  @Override
+  public void publish(@NotNull PlayerWrapperBase sender, byte @NotNull [] data) {
+    Objects.requireNonNull(data);
+    publish(sender, ByteBuffer.wrap(data));
+  }
+
+  @Override
+  public void publish(@NotNull PlayerWrapperBase sender, @NotNull ByteBuffer data) {
+    Objects.requireNonNull(sender);
+    Objects.requireNonNull(data);
+
+    hub.deliver(data);
+  }
+
+  void deliver(@NotNull ByteBuffer payload) {
+    receive(payload);
+  }
+
+  @Override
+  public void close() throws Exception {
+    hub.leave(this);
+    super.close();
+  }
+}
@@ -0,0 +1,44 @@
+package com.nookure.core.messaging.local;
+
+import com.google.inject.Singleton;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The in memory bus shared by {@link LoopbackEventMessenger}s.
+ * <p>
+ * It's a singleton per injector, messengers created by different injectors
+ * talk to each other when the same hub instance is bound in all of them.
+ */
+@Singleton
+public class LoopbackHub {
+  private final List<LoopbackEventMessenger> members = new CopyOnWriteArrayList<>();
+
+  void join(@NotNull LoopbackEventMessenger messenger) {
+    if (!members.contains(messenger)) {
+      members.add(messenger);
+    }
+  }
+
+  void leave(@NotNull LoopbackEventMessenger messenger) {
+    members.remove(messenger);
+  }
+
+  void deliver(@NotNull ByteBuffer payload) {
+    for (LoopbackEventMessenger member : members) {
+      member.deliver(payload.duplicate());
+    }
+  }
+
+  /**
+   * Get the amount of messengers connected to this hub
+   *
+   * @return The amount of messengers
+   */
+  public int getMemberCount() {
+    return members.size();
+  }
+}
@@ -0,0 +1,589 @@
+package com.nookure.core.messaging.local;
+
+import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.messaging.EventMessenger;
+import com.nookure.core.messaging.TransportUnavailableException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link EventMessenger} connecting the processes of a host through a Unix domain socket.
+ * <p>
+ * The first messenger to start binds the socket and becomes the hub, the
+ * others connect to it. The hub relays every payload to every messenger,
+ * the sender included, like a broker would. When the hub goes away the
+ * remaining messengers elect a new one, a lock file next to the socket
+ * makes sure only one of them binds it.
+ * <p>
+ * Payloads are framed by their length as a 4 byte int. All the I/O happens
+ * on a single non-blocking thread, which is also the thread receivers are
+ * called on. Delivery is at most once, payloads published while there's no
+ * hub are kept in memory, up to {@link #MAX_PENDING_FRAMES}, and sent once
+ * connected. When the durable outbox is enabled, see
+ * {@link EventMessenger#enableOutbox(Path, java.util.function.Supplier, long)},
+ * they go to the outbox instead, and it's replayed once connected.
+ */
+public class UnixSocketEventMessenger extends EventMessenger {
+  public static final int MAX_FRAME_BYTES = 16 << 20;
+  public static final int MAX_PENDING_FRAMES = 4096;
+  private static final int READ_BUFFER_BYTES = 64 << 10;
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+  private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private volatile Path socketPath = Path.of(System.getProperty("java.io.tmpdir"), "nookcore-messenger.sock");
+  // The frames waiting for the I/O thread, not to be confused with the durable outbox
+  private final Queue<ByteBuffer> publishQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingFrames = new AtomicInteger();
+  private volatile boolean running;
+  private volatile boolean hub;
+  private volatile boolean connected;
+  private volatile boolean retrying;
+  // Only touched by the I/O thread, set once the last frames are sent
+  private boolean closing;
+  private volatile Selector selector;
+  private Thread thread;
+
+  // Only touched by the I/O thread
+  private final List<Connection> connections = new ArrayList<>();
+  private Connection upstream;
+  private ServerSocketChannel server;
+  private FileChannel lockChannel;
+  private FileLock lock;
+
+  /**
+   * Set the path of the socket, every messenger of the host must use the same one.
+   * It must be set before {@link #prepare()}.
+   *
+   * @param socketPath The path of the socket
+   */
+  public void setSocketPath(@NotNull Path socketPath) {
+    Objects.requireNonNull(socketPath, "Socket path cannot be null");
+
+    if (running) {
+      throw new IllegalStateException("The socket path can't be changed once prepared");
+    }
+
+    this.socketPath = socketPath;
+  }
+
+  /**
+   * Check if this messenger currently is the hub of the host
+   *
+   * @return If this messenger bound the socket
+   */
+  public boolean isHub() {
+    return hub;
+  }
+
+  @Override
+  public synchronized void prepare() {
+    if (running) return;
+
+    running = true;
+    thread = new Thread(this::run, "NookCore Unix Socket Messenger");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void publish(@NotNull PlayerWrapperBase sender, byte @NotNull [] data) {
+    Objects.requireNonNull(data);
+    publish(sender, ByteBuffer.wrap(data));
+  }
+
+  /**
+   * Queues the payload to be sent by the I/O thread
+   *
+   * @param sender The sender of the event
+   * @param data   The event data
+   * @throws TransportUnavailableException If too many payloads are pending, or if
+   *                                       there's no hub and the outbox is enabled
+   */
+  @Override
+  public void publish(@NotNull PlayerWrapperBase sender, @NotNull ByteBuffer data) {
+    Objects.requireNonNull(sender);
+    Objects.requireNonNull(data);
+
+    int length = data.remaining();
+
+    if (length > MAX_FRAME_BYTES) {
+      throw new IllegalArgumentException("Payloads can't be bigger than " + MAX_FRAME_BYTES + " bytes");
+    }
+
+    if (!connected && isOutboxEnabled()) {
+      throw new TransportUnavailableException("Not connected to the unix socket hub");
+    }
+
+    if (pendingFrames.incrementAndGet() > MAX_PENDING_FRAMES) {
+      pendingFrames.decrementAndGet();
+      throw new TransportUnavailableException("The unix socket messenger is backed up");
+    }
+
+    ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+    frame.putInt(length).put(data.duplicate()).flip();
+    publishQueue.add(frame);
+
+    Selector current = selector;
+    if (current != null) {
+      current.wakeup();
+    }
+  }
+
+  private void run() {
+    long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+
+    while (running) {
+      try (Selector current = Selector.open()) {
+        selector = current;
+        establish(current);
+        connected = true;
+        retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+        replayOutbox();
+        loop(current);
+        flushOnClose(current);
+      } catch (IOException e) {
+        if (running) {
+          logger.debug("Unix socket messenger disconnected, retrying in %d ms: %s", retryDelay, e.getMessage());
+        }
+      } finally {
+        selector = null;
+        teardown();
+      }
+
+      // Lets close() interrupt the sleep, and only the sleep, an interrupt would close the channels
+      retrying = true;
+
+      try {
+        if (!running) break;
+
+        Thread.sleep(retryDelay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } finally {
+        retrying = false;
+      }
+
+      retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+    }
+  }
+
+  /**
+   * Connect to the hub, or become the hub if there's none
+   */
+  private void establish(Selector current) throws IOException {
+    UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketPath);
+
+    try {
+      SocketChannel channel = SocketChannel.open(address);
+      upstream = new Connection(channel, current);
+      logger.debug("Connected to the unix socket hub at %s", socketPath);
+      return;
+    } catch (IOException e) {
+      // Nobody is listening, try to become the hub
+    }
+
+    if (!tryLock()) {
+      throw new IOException("Another messenger is becoming the hub");
+    }
+
+    // We hold the lock, so a left over socket file belongs to a dead hub
+    Files.deleteIfExists(socketPath);
+
+    server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    server.bind(address);
+    server.configureBlocking(false);
+    server.register(current, SelectionKey.OP_ACCEPT);
+    hub = true;
+    logger.debug("Became the unix socket hub at %s", socketPath);
+  }
+
+  private boolean tryLock() throws IOException {
+    Path lockPath = socketPath.resolveSibling(socketPath.getFileName() + ".lock");
+    lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+    try {
+      lock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // Held by another messenger of this process
+      lock = null;
+    }
+
+    return lock != null;
+  }
+
+  private void loop(Selector current) throws IOException {
+    while (running) {
+      // Drain first, frames published before the selector was set never woke it up
+      drainPublishQueue();
+      current.select();
+
+      Iterator<SelectionKey> iterator = current.selectedKeys().iterator();
+
+      while (iterator.hasNext()) {
+        SelectionKey key = iterator.next();
+        iterator.remove();
+
+        if (!key.isValid()) continue;
+
+        if (key.isAcceptable()) {
+          accept(current);
+          continue;
+        }
+
+        Connection connection = (Connection) key.attachment();
+
+        try {
+          if (key.isReadable()) connection.read();
+          if (key.isValid() && key.isWritable()) connection.flush();
+        } catch (IOException e) {
+          // Losing the hub means reconnecting, losing a client just drops it
+          if (!hub) throw e;
+
+          connection.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Send the frames still queued once closed, then half close the connections
+   * and keep reading until the other side closes them too, closing a socket
+   * with unread data resets it and the other side loses what it hasn't read
+   * yet. Gives up after {@link #CLOSE_TIMEOUT_MILLIS}.
+   */
+  private void flushOnClose(Selector current) throws IOException {
+    drainPublishQueue();
+    closing = true;
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+
+    for (SelectionKey key : current.keys()) {
+      if (!key.isValid()) continue;
+
+      key.interestOps(key.attachment() instanceof Connection connection && connection.hasPendingWrites() ? SelectionKey.OP_WRITE : 0);
+    }
+
+    while (hasPendingWrites()) {
+      if (!select(current, deadline)) return;
+
+      forEachSelected(current, connection -> {
+        connection.flush();
+
+        if (!connection.hasPendingWrites()) {
+          connection.key.interestOps(0);
+        }
+      });
+    }
+
+    for (Connection connection : openConnections()) {
+      connection.channel.shutdownOutput();
+      connection.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    while (!openConnections().isEmpty()) {
+      if (!select(current, deadline)) return;
+
+      forEachSelected(current, Connection::read);
+    }
+  }
+
+  private boolean select(Selector current, long deadline) throws IOException {
+    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+    if (remaining <= 0) {
+      logger.warning("Could not close the unix socket connections cleanly, some frames may be lost");
+      return false;
+    }
+
+    current.select(remaining);
+    return true;
+  }
+
+  private void forEachSelected(Selector current, ConnectionTask task) {
+    Iterator<SelectionKey> iterator = current.selectedKeys().iterator();
+
+    while (iterator.hasNext()) {
+      SelectionKey key = iterator.next();
+      iterator.remove();
+
+      if (!key.isValid() || !(key.attachment() instanceof Connection connection)) continue;
+
+      try {
+        task.run(connection);
+      } catch (IOException e) {
+        connection.close();
+      }
+    }
+  }
+
+  private List<Connection> openConnections() {
+    List<Connection> open = new ArrayList<>(connections);
+
+    if (upstream != null) {
+      open.add(upstream);
+    }
+
+    open.removeIf(connection -> !connection.key.isValid());
+    return open;
+  }
+
+  private boolean hasPendingWrites() {
+    if (upstream != null && upstream.hasPendingWrites()) return true;
+
+    for (Connection connection : connections) {
+      if (connection.hasPendingWrites()) return true;
+    }
+
+    return false;
+  }
+
+  private void drainPublishQueue() {
+    ByteBuffer frame;
+
+    while ((frame = publishQueue.poll()) != null) {
+      pendingFrames.decrementAndGet();
+      route(frame);
+    }
+  }
+
+  private void accept(Selector current) throws IOException {
+    SocketChannel channel = server.accept();
+
+    if (channel != null) {
+      connections.add(new Connection(channel, current));
+    }
+  }
+
+  /**
+   * Send a frame on its way, the hub delivers it to everyone,
+   * a client sends it to the hub which echoes it back
+   *
+   * @param frame The frame, owned by the messenger
+   */
+  private void route(ByteBuffer frame) {
+    if (hub) {
+      deliver(frame);
+
+      for (Connection connection : List.copyOf(connections)) {
+        connection.enqueue(frame.duplicate());
+      }
+    } else if (upstream != null) {
+      upstream.enqueue(frame);
+    }
+  }
+
+  private void deliver(ByteBuffer frame) {
+    try {
+      receive(frame.duplicate().position(Integer.BYTES));
+    } catch (RuntimeException e) {
+      logger.severe("Error while receiving a payload from the unix socket");
+      logger.severe(e);
+    }
+  }
+
+  private void teardown() {
+    connected = false;
+    closing = false;
+
+    for (Connection connection : List.copyOf(connections)) {
+      connection.close();
+    }
+
+    if (upstream != null) {
+      upstream.close();
+      upstream = null;
+    }
+
+    if (server != null) {
+      closeQuietly(server);
+      server = null;
+
+      try {
+        Files.deleteIfExists(socketPath);
+      } catch (IOException e) {
+        logger.debug("Could not delete the unix socket file: %s", e.getMessage());
+      }
+    }
+
+    if (lockChannel != null) {
+      // Closing the channel releases the lock
+      closeQuietly(lockChannel);
+      lockChannel = null;
+      lock = null;
+    }
+
+    hub = false;
+  }
+
+  private static void closeQuietly(AutoCloseable closeable) {
+    try {
+      closeable.close();
+    } catch (Exception ignored) {
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    // Sends the pending batches before stopping the I/O thread
+    super.close();
+
+    Thread current;
+
+    synchronized (this) {
+      running = false;
+      current = thread;
+      thread = null;
+    }
+
+    if (current == null) return;
+
+    // Waiting to reconnect, there's nothing to send
+    if (retrying) {
+      current.interrupt();
+    }
+
+    Selector currentSelector = selector;
+    if (currentSelector != null) {
+      currentSelector.wakeup();
+    }
+
+    // The I/O thread sends the queued frames before stopping
+    current.join(CLOSE_TIMEOUT_MILLIS + 1000);
+  }
+
+  @FunctionalInterface
+  private interface ConnectionTask {
+    void run(Connection connection) throws IOException;
+  }
+
+  private final class Connection {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ArrayDeque<ByteBuffer> writes = new ArrayDeque<>();
+    private final ByteBuffer defaultReadBuffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+    private ByteBuffer readBuffer = defaultReadBuffer;
+
+    private Connection(SocketChannel channel, Selector selector) throws IOException {
+      this.channel = channel;
+      channel.configureBlocking(false);
+      this.key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    boolean hasPendingWrites() {
+      return key.isValid() && !writes.isEmpty();
+    }
+
+    void enqueue(ByteBuffer frame) {
+      // Relayed frames can't be sent once the connections are half closed
+      if (!key.isValid() || closing) return;
+
+      if (writes.size() >= MAX_PENDING_FRAMES) {
+        logger.warning("A unix socket messenger is too slow to keep up, disconnecting it");
+        close();
+        return;
+      }
+
+      writes.add(frame);
+      key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    void flush() throws IOException {
+      while (!writes.isEmpty()) {
+        ByteBuffer head = writes.peek();
+        channel.write(head);
+
+        if (head.hasRemaining()) return;
+
+        writes.poll();
+      }
+
+      key.interestOps(SelectionKey.OP_READ);
+    }
+
+    void read() throws IOException {
+      if (channel.read(readBuffer) < 0) {
+        throw new EOFException("The unix socket was closed");
+      }
+
+      readBuffer.flip();
+      int missing = 0;
+
+      while (readBuffer.remaining() >= Integer.BYTES) {
+        int length = readBuffer.getInt(readBuffer.position());
+
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+          throw new IOException("Invalid frame length " + length);
+        }
+
+        int frameLength = Integer.BYTES + length;
+
+        if (readBuffer.remaining() < frameLength) {
+          missing = frameLength;
+          break;
+        }
+
+        ByteBuffer frame = readBuffer.slice(readBuffer.position(), frameLength);
+        readBuffer.position(readBuffer.position() + frameLength);
+        onFrame(frame);
+      }
+
+      if (missing > readBuffer.capacity()) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(missing);
+        grown.put(readBuffer);
+        readBuffer = grown;
+      } else if (readBuffer != defaultReadBuffer && missing <= READ_BUFFER_BYTES) {
+        // The large frame is consumed, don't keep its buffer for the connection lifetime
+        defaultReadBuffer.clear();
+        defaultReadBuffer.put(readBuffer);
+        readBuffer = defaultReadBuffer;
+      } else {
+        readBuffer.compact();
+      }
+    }
+
+    private void onFrame(ByteBuffer frame) {
+      if (!hub) {
+        // The frame is only read during the call, no need to copy it
+        deliver(frame);
+        return;
+      }
+
+      // Relayed frames are written later, so they need their own copy
+      ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+      copy.put(frame).flip();
+      route(copy);
+    }
+
+    void close() {
+      key.cancel();
+      closeQuietly(channel);
+      connections.remove(this);
+    }
+  }
+}
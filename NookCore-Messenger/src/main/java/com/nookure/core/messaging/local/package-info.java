@@ -0,0 +1,9 @@
+/**
+ * Transports for instances running on the same host, without an external broker.
+ * <p>
+ * {@link com.nookure.core.messaging.local.LoopbackEventMessenger} delivers payloads
+ * in memory between messengers sharing a {@link com.nookure.core.messaging.local.LoopbackHub},
+ * and {@link com.nookure.core.messaging.local.UnixSocketEventMessenger} connects
+ * processes through a Unix domain socket.
+ */
+package com.nookure.core.messaging.local;
@@ -0,0 +1,348 @@
+package com.nookure.core.messaging.redis;
+
+import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.messaging.EventMessenger;
+import com.nookure.core.messaging.TransportUnavailableException;
+import com.nookure.core.messaging.redis.config.RedisConfig;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link EventMessenger} backed by redis pub/sub.
+ * <p>
+ * Messages are received by a dedicated subscriber thread, which is also the
+ * thread receivers are called on. Publishing only queues the payload, a
+ * publisher thread sends the queued payloads in pipelines of up to
+ * {@link RedisConfig#getPipelineSize()} commands, so a burst of events costs
+ * a single round trip.
+ * <p>
+ * Both threads reconnect with an exponential backoff when the connection is
+ * lost. A pipeline that failed is sent again once reconnected, so a payload
+ * may be published twice around a connection loss. When the durable outbox
+ * is enabled, see {@link EventMessenger#enableOutbox(java.nio.file.Path,
+ * java.util.function.Supplier, long)}, payloads published while the publisher
+ * is disconnected or the publish queue is full go to the outbox instead, and
+ * it's replayed once reconnected.
+ */
+public class RedisEventMessenger extends EventMessenger {
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 250;
+  private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+  private static final long POLL_INTERVAL_MILLIS = 100;
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private volatile RedisConfig config = new RedisConfig();
+  // The payloads waiting for the publisher thread, not to be confused with the durable outbox
+  private volatile BlockingQueue<byte[]> publishQueue;
+  private volatile boolean running;
+  private volatile boolean connected;
+  private volatile Jedis subscriberConnection;
+  private volatile BinaryJedisPubSub subscription;
+  private Thread subscriberThread;
+  private Thread publisherThread;
+
+  /**
+   * Prepares the messenger with the given config
+   *
+   * @param config The redis config
+   */
+  public synchronized void prepare(@NotNull RedisConfig config) {
+    Objects.requireNonNull(config, "Config cannot be null");
+
+    if (running) {
+      throw new IllegalStateException("The redis messenger is already prepared");
+    }
+
+    this.config = config;
+    prepare();
+  }
+
+  /**
+   * Prepares the messenger with the last config given to
+   * {@link #prepare(RedisConfig)}, or the default one
+   */
+  @Override
+  public synchronized void prepare() {
+    if (running) return;
+
+    running = true;
+    publishQueue = new LinkedBlockingQueue<>(config.getQueueSize());
+    subscriberThread = startThread(this::subscribeLoop, "NookCore Redis Subscriber");
+    publisherThread = startThread(this::publishLoop, "NookCore Redis Publisher");
+  }
+
+  /**
+   * Queues the payload to be published, the array must not be modified afterwards.
+   *
+   * @param sender The sender of the event
+   * @param data   The event data
+   * @throws TransportUnavailableException If the publish queue is full, or if the publisher
+   *                                       is disconnected and the outbox is enabled
+   */
+  @Override
+  public void publish(@NotNull PlayerWrapperBase sender, byte @NotNull [] data) {
+    Objects.requireNonNull(sender);
+    Objects.requireNonNull(data);
+
+    BlockingQueue<byte[]> queue = publishQueue;
+
+    if (queue == null) {
+      throw new IllegalStateException("The redis messenger isn't prepared");
+    }
+
+    // Without an outbox the publish queue is the best place to wait for the connection
+    if (!connected && isOutboxEnabled()) {
+      throw new TransportUnavailableException("Not connected to redis");
+    }
+
+    if (!queue.offer(data)) {
+      throw new TransportUnavailableException("The redis publish queue is full");
+    }
+  }
+
+  /**
+   * Get the amount of payloads waiting to be published
+   *
+   * @return The amount of queued payloads
+   */
+  public int getQueuedCount() {
+    BlockingQueue<byte[]> queue = publishQueue;
+    return queue == null ? 0 : queue.size();
+  }
+
+  private void subscribeLoop() {
+    AtomicLong retryDelay = new AtomicLong(INITIAL_RETRY_DELAY_MILLIS);
+
+    while (running) {
+      String channel = config.getChannel();
+
+      try (Jedis jedis = connect()) {
+        BinaryJedisPubSub pubSub = new BinaryJedisPubSub() {
+          @Override
+          public void onSubscribe(byte[] subscribedChannel, int subscribedChannels) {
+            retryDelay.set(INITIAL_RETRY_DELAY_MILLIS);
+            logger.debug("Subscribed to the redis channel %s", channel);
+          }
+
+          @Override
+          public void onMessage(byte[] messageChannel, byte[] message) {
+            try {
+              receive(ByteBuffer.wrap(message));
+            } catch (RuntimeException e) {
+              logger.severe("Error while receiving a payload from redis");
+              logger.severe(e);
+            }
+          }
+        };
+
+        subscriberConnection = jedis;
+        subscription = pubSub;
+
+        // Closed between connecting and publishing the subscription
+        if (!running) break;
+
+        // Blocks until unsubscribed or disconnected
+        jedis.subscribe(pubSub, channel.getBytes(StandardCharsets.UTF_8));
+      } catch (JedisException e) {
+        if (running) {
+          logger.warning("Lost the redis subscription, retrying in %d ms: %s", retryDelay.get(), e.getMessage());
+        }
+      } finally {
+        subscriberConnection = null;
+        subscription = null;
+      }
+
+      if (!running || !sleep(retryDelay.get())) break;
+
+      retryDelay.set(Math.min(retryDelay.get() * 2, MAX_RETRY_DELAY_MILLIS));
+    }
+  }
+
+  private void publishLoop() {
+    BlockingQueue<byte[]> queue = publishQueue;
+    List<byte[]> pipelined = new ArrayList<>();
+    long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+    Jedis jedis = null;
+
+    try {
+      // Keep going after close until the queue is drained
+      while (running || !queue.isEmpty() || !pipelined.isEmpty()) {
+        // Reconnect even when idle, the outbox waits for the connection
+        if (jedis == null) {
+          try {
+            jedis = connect();
+            connected = true;
+            retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+            replayOutbox();
+          } catch (JedisException e) {
+            if (!running) {
+              logger.warning("Could not publish %d events to redis before closing: %s", pipelined.size() + queue.size(), e.getMessage());
+              break;
+            }
+
+            logger.warning("Could not connect to redis, retrying in %d ms: %s", retryDelay, e.getMessage());
+
+            if (!sleep(retryDelay)) break;
+
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            continue;
+          }
+        }
+
+        if (pipelined.isEmpty()) {
+          byte[] first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+          if (first == null) continue;
+
+          pipelined.add(first);
+          queue.drainTo(pipelined, config.getPipelineSize() - 1);
+        }
+
+        try {
+          byte[] channel = config.getChannel().getBytes(StandardCharsets.UTF_8);
+          Pipeline pipeline = jedis.pipelined();
+
+          for (byte[] payload : pipelined) {
+            pipeline.publish(channel, payload);
+          }
+
+          pipeline.sync();
+          pipelined.clear();
+          retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+        } catch (JedisException e) {
+          connected = false;
+          closeQuietly(jedis);
+          jedis = null;
+
+          if (!running) {
+            logger.warning("Could not publish %d events to redis before closing: %s", pipelined.size() + queue.size(), e.getMessage());
+            break;
+          }
+
+          logger.warning("Could not publish to redis, retrying in %d ms: %s", retryDelay, e.getMessage());
+
+          if (!sleep(retryDelay)) break;
+
+          retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      connected = false;
+      closeQuietly(jedis);
+    }
+  }
+
+  private Jedis connect() {
+    RedisConfig current = config;
+    DefaultJedisClientConfig.Builder builder = DefaultJedisClientConfig.builder()
+        .database(current.getDatabase())
+        .timeoutMillis(current.getTimeout())
+        .ssl(current.isSsl());
+
+    if (!current.getUsername().isEmpty()) {
+      builder.user(current.getUsername());
+    }
+
+    if (!current.getPassword().isEmpty()) {
+      builder.password(current.getPassword());
+    }
+
+    Jedis jedis = new Jedis(new HostAndPort(current.getHost(), current.getPort()), builder.build());
+
+    try {
+      // Connections are lazy, make sure the server is reachable and we are authenticated
+      jedis.ping();
+      return jedis;
+    } catch (JedisException e) {
+      closeQuietly(jedis);
+      throw e;
+    }
+  }
+
+  private static Thread startThread(Runnable runnable, String name) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  private static boolean sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static void closeQuietly(Jedis jedis) {
+    if (jedis == null) return;
+
+    try {
+      jedis.close();
+    } catch (RuntimeException ignored) {
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    // Queues the pending batches before stopping the publisher
+    super.close();
+
+    Thread subscriber;
+    Thread publisher;
+
+    synchronized (this) {
+      if (!running) return;
+
+      running = false;
+      subscriber = subscriberThread;
+      publisher = publisherThread;
+      subscriberThread = null;
+      publisherThread = null;
+    }
+
+    BinaryJedisPubSub pubSub = subscription;
+
+    if (pubSub != null && pubSub.isSubscribed()) {
+      try {
+        pubSub.unsubscribe();
+      } catch (JedisException ignored) {
+      }
+    }
+
+    publisher.join(CLOSE_TIMEOUT_MILLIS);
+    publisher.interrupt();
+
+    subscriber.join(POLL_INTERVAL_MILLIS);
+
+    if (subscriber.isAlive()) {
+      // Still subscribing or sleeping, dropping the connection ends it
+      Jedis connection = subscriberConnection;
+
+      if (connection != null) {
+        connection.disconnect();
+      }
+
+      subscriber.interrupt();
+      subscriber.join(CLOSE_TIMEOUT_MILLIS);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.nookure.core.messaging.redis.config;
+
+import org.spongepowered.configurate.objectmapping.ConfigSerializable;
+import org.spongepowered.configurate.objectmapping.meta.Comment;
+import org.spongepowered.configurate.objectmapping.meta.Setting;
+
+@ConfigSerializable
+public class RedisConfig {
+  @Setting
+  @Comment("""
+      The host of the redis server.
+      This can be an IP address or a domain name.
+      """)
+  private String host = "localhost";
+
+  @Setting
+  @Comment("""
+      The port of the redis server.
+      This is usually 6379
+      """)
+  private int port = 6379;
+
+  @Setting
+  @Comment("""
+      The username of the redis server.
+      Leave it empty if your server doesn't use ACL users.
+      """)
+  private String username = "";
+
+  @Setting
+  @Comment("""
+      The password of the redis server.
+      Leave it empty if your server doesn't require one.
+      """)
+  private String password = "";
+
+  @Setting
+  @Comment("""
+      The redis database to select.
+      """)
+  private int database = 0;
+
+  @Setting
+  @Comment("""
+      Whether to connect to the redis server using SSL.
+      """)
+  private boolean ssl = false;
+
+  @Setting
+  @Comment("""
+      The channel the events are published to.
+      Every server of the network must use the same channel,
+      use different channels to split networks sharing a redis server.
+      """)
+  private String channel = "nookcore:events";
+
+  @Setting
+  @Comment("""
+      The connection timeout in milliseconds.
+      """)
+  private int timeout = 2000;
+
+  @Setting
+  @Comment("""
+      The maximum amount of events sent in a single pipeline.
+      """)
+  private int pipelineSize = 256;
+
+  @Setting
+  @Comment("""
+      The maximum amount of events waiting to be published,
+      events published while the queue is full are dropped.
+      """)
+  private int queueSize = 8192;
+
+  public RedisConfig() {
+  }
+
+  /**
+   * Create a config pointing to the given server, with every other setting
+   * left to its default, e.g. to connect to a local stand-in in tests
+   *
+   * @param host The host of the redis server
+   * @param port The port of the redis server
+   */
+  public RedisConfig(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  public int getDatabase() {
+    return database;
+  }
+
+  public boolean isSsl() {
+    return ssl;
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  public int getTimeout() {
+    return timeout;
+  }
+
+  public int getPipelineSize() {
+    return pipelineSize;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  @Override
+  public String toString() {
+    return "RedisConfig{" +
+        "host='" + host + '\'' +
+        ", port=" + port +
+        ", username='" + username + '\'' +
+        ", password='" + (password.isEmpty() ? "" : "********") + '\'' +
+        ", database=" + database +
+        ", ssl=" + ssl +
+        ", channel='" + channel + '\'' +
+        ", timeout=" + timeout +
+        ", pipelineSize=" + pipelineSize +
+        ", queueSize=" + queueSize +
+        '}';
+  }
+}
@@ -0,0 +1,13 @@
+package com.nookure.core.messaging.rpc;
+
+/**
+ * Completes a request that didn't get a usable reply, because the remote
+ * handler failed, the reply had an unexpected type or the manager was closed.
+ *
+ * @since 1.1.0
+ */
+public class RpcException extends RuntimeException {
+  public RpcException(String message) {
+    super(message);
+  }
+}
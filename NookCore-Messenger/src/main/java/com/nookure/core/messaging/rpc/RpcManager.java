@@ -0,0 +1,367 @@
+package com.nookure.core.messaging.rpc;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.nookure.core.PlayerWrapperBase;
+import com.nookure.core.event.Event;
+import com.nookure.core.logger.Logger;
+import com.nookure.core.messaging.EventMessenger;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests to the other nodes through the {@link EventMessenger} and
+ * completes a future with their replies.
+ * <p>
+ * Requests and replies are events, wrapped in an {@link RpcRequest} or an
+ * {@link RpcReply} carrying the correlation id. Every node handling the type
+ * of a request replies to it, a handler returning null doesn't reply, so only
+ * the nodes that know the answer do. Only other nodes handle the requests.
+ * <p>
+ * Handlers run on the thread of the transport, slow handlers should be
+ * registered with {@link #registerAsyncHandler(Class, Function)}.
+ *
+ * @since 1.1.0
+ */
+@Singleton
+public class RpcManager implements AutoCloseable {
+  @Inject
+  private EventMessenger eventMessenger;
+  @Inject
+  private Logger logger;
+  private final Map<Class<?>, Function<Event, ? extends CompletionStage<? extends Event>>> handlers = new ConcurrentHashMap<>();
+  private final Map<Long, PendingCall> pending = new ConcurrentHashMap<>();
+  private final AtomicLong nextCorrelationId = new AtomicLong();
+  private final Consumer<Event> receiver = this::onReceived;
+  private volatile Supplier<? extends PlayerWrapperBase> senderSupplier;
+  private volatile UUID nodeId;
+  private volatile ScheduledExecutorService scheduler;
+
+  /**
+   * Start sending and handling requests
+   *
+   * @param senderSupplier Supplies the sender of the requests and replies, transports that
+   *                       need a player to send through use it
+   */
+  public synchronized void start(@NotNull Supplier<? extends PlayerWrapperBase> senderSupplier) {
+    Objects.requireNonNull(senderSupplier, "Sender supplier cannot be null");
+
+    if (scheduler != null) {
+      throw new IllegalStateException("The RPC manager is already started");
+    }
+
+    this.senderSupplier = senderSupplier;
+
+    if (eventMessenger.getNodeId() == null) {
+      eventMessenger.enableOriginTracking(UUID.randomUUID());
+    }
+
+    nodeId = eventMessenger.getNodeId();
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "NookCore Messenger RPC");
+      thread.setDaemon(true);
+      return thread;
+    });
+    eventMessenger.addReceiver(receiver);
+  }
+
+  /**
+   * Handle the requests of a type
+   *
+   * @param type    The request type
+   * @param handler Returns the reply, or null to not reply
+   * @param <Q>     The request type
+   */
+  public <Q extends Event> void registerHandler(@NotNull Class<Q> type, @NotNull Function<? super Q, ? extends Event> handler) {
+    Objects.requireNonNull(handler, "Handler cannot be null");
+    registerAsyncHandler(type, request -> CompletableFuture.completedFuture(handler.apply(request)));
+  }
+
+  /**
+   * Handle the requests of a type asynchronously
+   *
+   * @param type    The request type
+   * @param handler Returns a stage completed with the reply, or with null to not reply
+   * @param <Q>     The request type
+   */
+  public <Q extends Event> void registerAsyncHandler(
+      @NotNull Class<Q> type,
+      @NotNull Function<? super Q, ? extends CompletionStage<? extends Event>> handler
+  ) {
+    Objects.requireNonNull(type, "Type cannot be null");
+    Objects.requireNonNull(handler, "Handler cannot be null");
+
+    handlers.put(type, request -> handler.apply(type.cast(request)));
+  }
+
+  /**
+   * Stop handling the requests of a type
+   *
+   * @param type The request type
+   */
+  public void unregisterHandler(@NotNull Class<? extends Event> type) {
+    Objects.requireNonNull(type, "Type cannot be null");
+    handlers.remove(type);
+  }
+
+  /**
+   * Send a request and wait for the first reply
+   *
+   * @param request   The request
+   * @param replyType The expected reply type
+   * @param timeout   How long to wait for a reply
+   * @param <R>       The reply type
+   * @return A future completed with the first reply, or exceptionally with a
+   * {@link TimeoutException} if none arrived in time, or with an {@link RpcException}
+   * if the first reply is an error or doesn't have the expected type
+   */
+  @NotNull
+  public <R extends Event> CompletableFuture<R> request(@NotNull Event request, @NotNull Class<R> replyType, @NotNull Duration timeout) {
+    Objects.requireNonNull(replyType, "Reply type cannot be null");
+
+    CompletableFuture<R> future = new CompletableFuture<>();
+
+    send(request, timeout, new PendingCall(future) {
+      @Override
+      boolean accept(RpcReply reply) {
+        if (reply.error() != null) {
+          future.completeExceptionally(new RpcException(reply.error()));
+        } else if (!replyType.isInstance(reply.body())) {
+          future.completeExceptionally(new RpcException("Expected a " + replyType.getName() + " reply, got " + reply.body()));
+        } else {
+          future.complete(replyType.cast(reply.body()));
+        }
+
+        return true;
+      }
+
+      @Override
+      void expire() {
+        future.completeExceptionally(new TimeoutException("No reply to " + request.getClass().getName() + " within " + timeout));
+      }
+    });
+
+    return future;
+  }
+
+  /**
+   * Send a request and gather the replies of every node
+   *
+   * @param request         The request
+   * @param replyType       The expected reply type, replies of other types and errors are skipped
+   * @param timeout         How long to wait for the replies
+   * @param expectedReplies Complete as soon as this many replies arrived, zero to always wait for the timeout
+   * @param <R>             The reply type
+   * @return A future completed with the gathered replies, in the order they arrived
+   */
+  @NotNull
+  public <R extends Event> CompletableFuture<List<R>> requestAll(
+      @NotNull Event request,
+      @NotNull Class<R> replyType,
+      @NotNull Duration timeout,
+      int expectedReplies
+  ) {
+    Objects.requireNonNull(replyType, "Reply type cannot be null");
+
+    CompletableFuture<List<R>> future = new CompletableFuture<>();
+    List<R> replies = new ArrayList<>();
+
+    send(request, timeout, new PendingCall(future) {
+      @Override
+      synchronized boolean accept(RpcReply reply) {
+        if (reply.error() != null) {
+          logger.debug("Node %s failed to handle %s: %s", reply.responder(), request.getClass().getSimpleName(), reply.error());
+          return false;
+        }
+
+        if (!replyType.isInstance(reply.body())) return false;
+
+        replies.add(replyType.cast(reply.body()));
+
+        if (expectedReplies > 0 && replies.size() >= expectedReplies) {
+          future.complete(List.copyOf(replies));
+          return true;
+        }
+
+        return false;
+      }
+
+      @Override
+      synchronized void expire() {
+        future.complete(List.copyOf(replies));
+      }
+    });
+
+    return future;
+  }
+
+  /**
+   * Get the amount of requests waiting for replies
+   *
+   * @return The amount of pending requests
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  private void send(Event request, Duration timeout, PendingCall call) {
+    Objects.requireNonNull(request, "Request cannot be null");
+    Objects.requireNonNull(timeout, "Timeout cannot be null");
+
+    ScheduledExecutorService currentScheduler = scheduler;
+
+    if (currentScheduler == null) {
+      throw new IllegalStateException("The RPC manager isn't started");
+    }
+
+    long correlationId = nextCorrelationId.incrementAndGet();
+    pending.put(correlationId, call);
+
+    ScheduledFuture<?> timeoutTask;
+
+    try {
+      timeoutTask = currentScheduler.schedule(() -> {
+        PendingCall expired = pending.remove(correlationId);
+
+        if (expired != null) {
+          expired.expire();
+        }
+      }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // Closed since the scheduler was read, the call missed the pending calls failed by close
+      pending.remove(correlationId, call);
+      call.future.completeExceptionally(new RpcException("The RPC manager was closed"));
+      return;
+    }
+
+    // Whatever completes the future, the caller cancelling it included
+    call.future.whenComplete((result, throwable) -> {
+      pending.remove(correlationId, call);
+      timeoutTask.cancel(false);
+    });
+
+    if (!publish(new RpcRequest(correlationId, nodeId, request))) {
+      call.future.completeExceptionally(new RpcException("No sender available to send " + request.getClass().getName()));
+    }
+  }
+
+  private void onReceived(Event event) {
+    if (event instanceof RpcRequest request) {
+      onRequest(request);
+    } else if (event instanceof RpcReply reply) {
+      onReply(reply);
+    }
+  }
+
+  private void onRequest(RpcRequest request) {
+    if (request.body() == null || nodeId.equals(request.requester())) return;
+
+    Function<Event, ? extends CompletionStage<? extends Event>> handler = handlers.get(request.body().getClass());
+
+    if (handler == null) return;
+
+    CompletionStage<? extends Event> stage;
+
+    try {
+      stage = handler.apply(request.body());
+    } catch (RuntimeException e) {
+      stage = CompletableFuture.failedFuture(e);
+    }
+
+    stage.whenComplete((reply, throwable) -> {
+      if (throwable == null && reply == null) return;
+
+      publish(throwable == null
+          ? new RpcReply(request.correlationId(), request.requester(), nodeId, reply, null)
+          : new RpcReply(request.correlationId(), request.requester(), nodeId, null, describe(throwable)));
+    });
+  }
+
+  private void onReply(RpcReply reply) {
+    if (!nodeId.equals(reply.requester())) return;
+
+    PendingCall call = pending.get(reply.correlationId());
+
+    // Late reply, the request timed out or was already answered
+    if (call == null) return;
+
+    if (call.accept(reply)) {
+      pending.remove(reply.correlationId(), call);
+    }
+  }
+
+  private boolean publish(Event event) {
+    PlayerWrapperBase sender = senderSupplier.get();
+
+    if (sender == null) {
+      logger.debug("No sender available, %s has not been sent", event.getClass().getSimpleName());
+      return false;
+    }
+
+    eventMessenger.publish(sender, event);
+    return true;
+  }
+
+  private static String describe(Throwable throwable) {
+    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+
+    return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+  }
+
+  /**
+   * Stop sending and handling requests, the pending requests fail with an {@link RpcException}
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduler == null) return;
+
+    eventMessenger.removeReceiver(receiver);
+    scheduler.shutdownNow();
+    scheduler = null;
+
+    for (PendingCall call : List.copyOf(pending.values())) {
+      call.future.completeExceptionally(new RpcException("The RPC manager was closed"));
+    }
+
+    pending.clear();
+  }
+
+  private abstract static class PendingCall {
+    private final CompletableFuture<?> future;
+
+    private PendingCall(CompletableFuture<?> future) {
+      this.future = future;
+    }
+
+    /**
+     * Handle a reply
+     *
+     * @return If the call is done
+     */
+    abstract boolean accept(RpcReply reply);
+
+    abstract void expire();
+  }
+}
@@ -0,0 +1,25 @@
+package com.nookure.core.messaging.rpc;
+
+import com.nookure.core.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * The envelope of a reply sent by the {@link RpcManager}.
+ *
+ * @param correlationId The id of the request
+ * @param requester     The node id of the requester
+ * @param responder     The node id of the responder
+ * @param body          The reply, null if the handler failed
+ * @param error         Why the handler failed, null if it didn't
+ * @since 1.1.0
+ */
+public record RpcReply(
+    long correlationId,
+    UUID requester,
+    UUID responder,
+    @Nullable Event body,
+    @Nullable String error
+) implements Event {
+}
@@ -0,0 +1,16 @@
+package com.nookure.core.messaging.rpc;
+
+import com.nookure.core.event.Event;
+
+import java.util.UUID;
+
+/**
+ * The envelope of a request sent by the {@link RpcManager}.
+ *
+ * @param correlationId The id the replies refer to, unique to the requester
+ * @param requester     The node id of the requester
+ * @param body          The request
+ * @since 1.1.0
+ */
+public record RpcRequest(long correlationId, UUID requester, Event body) implements Event {
+}
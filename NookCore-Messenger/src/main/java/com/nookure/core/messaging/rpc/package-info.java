@@ -0,0 +1,5 @@
+/**
+ * This package contains a request/response layer on top of the messenger,
+ * see {@link com.nookure.core.messaging.rpc.RpcManager}
+ */
+package com.nookure.core.messaging.rpc;
@@ -0,0 +1,114 @@
+package com.nookure.core.messaging;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.nookure.core.event.Event;
+import com.nookure.core.event.EventLane;
+import com.nookure.core.event.EventManager;
+import com.nookure.core.event.NookSubscribe;
+import com.nookure.core.messaging.local.LoopbackEventMessenger;
+import com.nookure.core.messaging.local.LoopbackHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EventBridgeTest {
+  // Both nodes share the hub of the parent injector
+  private final Injector network = Guice.createInjector(new MessengerTestModule(), new AbstractModule() {
+    @Override
+    protected void configure() {
+      bind(LoopbackHub.class);
+    }
+  });
+  private final Node first = new Node(network);
+  private final Node second = new Node(network);
+
+  @AfterEach
+  void tearDown() throws Exception {
+    first.close();
+    second.close();
+  }
+
+  @Test
+  void replicatedEventIsFiredOnceOnEveryNode() throws InterruptedException {
+    first.eventManager.fireEventSync(new ReplicatedEvent("hello"));
+
+    assertEquals(new ReplicatedEvent("hello"), first.received.poll(5, TimeUnit.SECONDS));
+    assertEquals(new ReplicatedEvent("hello"), second.received.poll(5, TimeUnit.SECONDS));
+
+    // Neither the own payload nor an echo of the received event comes back
+    assertNull(first.received.poll(200, TimeUnit.MILLISECONDS));
+    assertNull(second.received.poll(200, TimeUnit.MILLISECONDS));
+    assertEquals(1, first.messenger.getSuppressedOwnCount());
+    assertEquals(0, second.messenger.getSuppressedOwnCount());
+  }
+
+  @Test
+  void eventsWithoutTheAnnotationStayLocal() throws InterruptedException {
+    first.eventManager.fireEventSync(new TestEvent("local"));
+
+    assertNull(second.received.poll(200, TimeUnit.MILLISECONDS));
+    assertEquals(0, first.messenger.getSuppressedOwnCount());
+  }
+
+  @NetworkReplicated
+  public record ReplicatedEvent(String text) implements Event {
+  }
+
+  public static class ReceivingListener {
+    private final BlockingQueue<Event> received;
+
+    ReceivingListener(BlockingQueue<Event> received) {
+      this.received = received;
+    }
+
+    @NookSubscribe(lane = EventLane.SYNC)
+    public void onEvent(ReplicatedEvent event) {
+      received.add(event);
+    }
+  }
+
+  /**
+   * A node of the network, with its own event manager, messenger and bridge
+   */
+  private static final class Node {
+    private final BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+    private final EventManager eventManager;
+    private final LoopbackEventMessenger messenger;
+    private final EventBridge bridge;
+
+    private Node(Injector network) {
+      Injector injector = network.createChildInjector(new AbstractModule() {
+        @Override
+        protected void configure() {
+          bind(EventManager.class);
+          bind(EventBridge.class);
+          bind(LoopbackEventMessenger.class).in(Singleton.class);
+          bind(EventMessenger.class).to(LoopbackEventMessenger.class);
+        }
+      });
+
+      eventManager = injector.getInstance(EventManager.class);
+      messenger = injector.getInstance(LoopbackEventMessenger.class);
+      bridge = injector.getInstance(EventBridge.class);
+
+      messenger.prepare();
+      eventManager.registerListener(new ReceivingListener(received));
+      bridge.start(TestSender::new);
+    }
+
+    private void close() throws Exception {
+      bridge.close();
+      messenger.close();
+      eventManager.close();
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.nookure.core.messaging;
+
+import com.google.inject.AbstractModule;
+import com.nookure.core.annotation.PluginDebug;
+import com.nookure.core.logger.annotation.PluginAudience;
+import com.nookure.core.logger.annotation.PluginLoggerColor;
+import com.nookure.core.logger.annotation.PluginName;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The bindings an {@link EventMessenger} and its {@link com.nookure.core.logger.Logger} need outside a plugin
+ */
+public class MessengerTestModule extends AbstractModule {
+  @Override
+  protected void configure() {
+    bind(AtomicBoolean.class).annotatedWith(PluginDebug.class).toInstance(new AtomicBoolean(false));
+    bind(String.class).annotatedWith(PluginName.class).toInstance("NookCore Test");
+    bind(NamedTextColor.class).annotatedWith(PluginLoggerColor.class).toInstance(NamedTextColor.GRAY);
+    bind(Audience.class).annotatedWith(PluginAudience.class).toInstance(Audience.empty());
+  }
+}
@@ -0,0 +1,87 @@
+package com.nookure.core.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OriginFilterTest {
+  private final OriginFilter filter = new OriginFilter();
+  private final UUID origin = UUID.randomUUID();
+
+  @Test
+  void duplicateInsideTheWindowIsDropped() {
+    assertTrue(filter.accept(origin, 1));
+    assertTrue(filter.accept(origin, 2));
+
+    assertFalse(filter.accept(origin, 1));
+    assertFalse(filter.accept(origin, 2));
+  }
+
+  @Test
+  void outOfOrderSequencesInsideTheWindowAreAcceptedOnce() {
+    long highest = 100;
+    assertTrue(filter.accept(origin, highest));
+
+    // The oldest slot of the window, then one in the middle
+    assertTrue(filter.accept(origin, highest - (OriginFilter.WINDOW - 1)));
+    assertTrue(filter.accept(origin, highest - 10));
+
+    assertFalse(filter.accept(origin, highest - (OriginFilter.WINDOW - 1)));
+    assertFalse(filter.accept(origin, highest - 10));
+    assertTrue(filter.accept(origin, highest - 11));
+  }
+
+  @Test
+  void seenSequencesMoveWithTheWindow() {
+    assertTrue(filter.accept(origin, 10));
+    assertTrue(filter.accept(origin, 8));
+
+    // Sliding by less than the window keeps what was seen
+    assertTrue(filter.accept(origin, 40));
+    assertFalse(filter.accept(origin, 8));
+    assertFalse(filter.accept(origin, 10));
+    assertTrue(filter.accept(origin, 9));
+  }
+
+  @Test
+  void sequenceOlderThanTheWindowIsDropped() {
+    assertTrue(filter.accept(origin, 1));
+    assertTrue(filter.accept(origin, 1 + OriginFilter.WINDOW));
+
+    // Never seen, but too old to tell
+    assertFalse(filter.accept(origin, 0));
+    assertFalse(filter.accept(origin, 1));
+    assertTrue(filter.accept(origin, 2));
+  }
+
+  @Test
+  void originsAreTrackedApart() {
+    UUID other = UUID.randomUUID();
+
+    assertTrue(filter.accept(origin, 5));
+    assertTrue(filter.accept(other, 5));
+    assertFalse(filter.accept(other, 5));
+  }
+
+  @Test
+  void leastRecentlySeenOriginIsForgottenPastTheLimit() throws InterruptedException {
+    UUID[] origins = new UUID[OriginFilter.MAX_ORIGINS];
+
+    for (int i = 0; i < origins.length; i++) {
+      origins[i] = UUID.randomUUID();
+      assertTrue(filter.accept(origins[i], 5));
+
+      // Keep the first one clearly the least recently seen
+      if (i == 0) Thread.sleep(5);
+    }
+
+    assertTrue(filter.accept(UUID.randomUUID(), 5));
+
+    // The first window is gone, the others are kept
+    assertTrue(filter.accept(origins[0], 5));
+    assertFalse(filter.accept(origins[origins.length - 1], 5));
+  }
+}
@@ -0,0 +1,155 @@
+package com.nookure.core.messaging;
+
+import com.google.inject.Guice;
+import com.nookure.core.logger.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundQueueTest {
+  private final TestSender sender = new TestSender();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final CountDownLatch writing = new CountDownLatch(1);
+  private final List<byte[]> sent = new CopyOnWriteArrayList<>();
+  private OutboundQueue queue;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    queue.close();
+  }
+
+  @Test
+  void blockWaitsForRoomInTheQueue() throws InterruptedException {
+    blockWriter(OverflowPolicy.BLOCK, 2);
+    offer(1, null);
+    offer(2, null);
+
+    CountDownLatch offered = new CountDownLatch(1);
+    Thread publisher = new Thread(() -> {
+      offer(3, null);
+      offered.countDown();
+    });
+    publisher.start();
+
+    assertFalse(offered.await(200, TimeUnit.MILLISECONDS));
+    assertEquals(2, queue.statistics().depth());
+
+    release.countDown();
+
+    assertTrue(offered.await(5, TimeUnit.SECONDS));
+    awaitSent(4);
+    assertEquals(List.of(0, 1, 2, 3), sentPayloads());
+    assertEquals(0, queue.statistics().dropped());
+  }
+
+  @Test
+  void dropOldestMakesRoomForThePublishedPayload() throws InterruptedException {
+    blockWriter(OverflowPolicy.DROP_OLDEST, 2);
+    offer(1, null);
+    offer(2, null);
+    offer(3, null);
+    release.countDown();
+
+    awaitSent(3);
+    assertEquals(List.of(0, 2, 3), sentPayloads());
+    assertEquals(1, queue.statistics().dropped());
+  }
+
+  @Test
+  void dropNewestDropsThePublishedPayload() throws InterruptedException {
+    blockWriter(OverflowPolicy.DROP_NEWEST, 2);
+    offer(1, null);
+    offer(2, null);
+    offer(3, null);
+    release.countDown();
+
+    awaitSent(3);
+    assertEquals(List.of(0, 1, 2), sentPayloads());
+    assertEquals(1, queue.statistics().dropped());
+  }
+
+  @Test
+  void coalescedPayloadKeepsItsPlaceInAFullQueue() throws InterruptedException {
+    blockWriter(OverflowPolicy.COALESCE, 2);
+    offer(1, "key");
+    offer(2, null);
+    offer(3, "key");
+    release.countDown();
+
+    awaitSent(3);
+    assertEquals(List.of(0, 3, 2), sentPayloads());
+
+    OutboundQueueStatistics statistics = queue.statistics();
+    assertEquals(1, statistics.coalesced());
+    assertEquals(0, statistics.dropped());
+  }
+
+  @Test
+  void coalescedPayloadIsSentWithItsOwnWait() throws InterruptedException {
+    blockWriter(OverflowPolicy.COALESCE, 16);
+    offer(1, "key");
+    Thread.sleep(400);
+    offer(2, "key");
+    release.countDown();
+
+    awaitSent(2);
+
+    OutboundQueueStatistics statistics = queue.statistics();
+    assertEquals(2, statistics.sent());
+    assertEquals(1, statistics.coalesced());
+    assertArrayEquals(new byte[]{2}, sent.get(1));
+
+    // The replaced payload waited 400ms, the one that was sent barely waited
+    assertTrue(statistics.averageWaitNanos() < TimeUnit.MILLISECONDS.toNanos(150), "Average wait " + statistics.averageWaitNanos());
+  }
+
+  /**
+   * Open the queue and keep its writer busy sending payload 0,
+   * so the next payloads wait in the queue until {@link #release} opens
+   */
+  private void blockWriter(OverflowPolicy policy, int capacity) throws InterruptedException {
+    queue = new OutboundQueue(capacity, policy, Guice.createInjector(new MessengerTestModule()).getInstance(Logger.class), (ignored, payload) -> {
+      writing.countDown();
+
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      sent.add(payload);
+    });
+
+    offer(0, null);
+    assertTrue(writing.await(5, TimeUnit.SECONDS));
+  }
+
+  private void offer(int payload, Object coalescingKey) {
+    assertTrue(queue.offer(sender, new byte[]{(byte) payload}, coalescingKey));
+  }
+
+  private void awaitSent(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    // Counted once the transport returned, so every statistic is up to date
+    while (queue.statistics().sent() < count && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(count, queue.statistics().sent());
+  }
+
+  private List<Integer> sentPayloads() {
+    return sent.stream().map(payload -> (int) payload[0]).toList();
+  }
+}
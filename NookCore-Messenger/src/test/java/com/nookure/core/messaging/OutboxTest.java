@@ -0,0 +1,149 @@
+package com.nookure.core.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxTest {
+  private static final long MAX_BYTES = 4L * Outbox.SEGMENT_BYTES;
+
+  @Test
+  void reopenedOutboxResumesFromTheCheckpoint(@TempDir Path folder) throws IOException {
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      append(outbox, "first");
+      append(outbox, "second");
+      append(outbox, "third");
+
+      assertArrayEquals(bytes("first"), outbox.peek());
+      outbox.acknowledge();
+    }
+
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      assertEquals(2, outbox.pendingCount());
+      assertArrayEquals(bytes("second"), outbox.peek());
+      outbox.acknowledge();
+      assertArrayEquals(bytes("third"), outbox.peek());
+      outbox.acknowledge();
+
+      assertTrue(outbox.isEmpty());
+      assertNull(outbox.peek());
+    }
+  }
+
+  @Test
+  void tornTailIsDroppedAndOverwritten(@TempDir Path folder) throws IOException {
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      append(outbox, "kept");
+      append(outbox, "torn");
+    }
+
+    // Flip a payload byte of the second record, as if the crash happened while writing it
+    try (FileChannel channel = FileChannel.open(segments(folder).get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      int position = 2 * Integer.BYTES + "kept".length() + 2 * Integer.BYTES;
+      channel.write(ByteBuffer.wrap(new byte[]{'x'}), position);
+    }
+
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      assertEquals(1, outbox.pendingCount());
+
+      append(outbox, "after");
+
+      assertArrayEquals(bytes("kept"), outbox.peek());
+      outbox.acknowledge();
+      assertArrayEquals(bytes("after"), outbox.peek());
+      outbox.acknowledge();
+      assertTrue(outbox.isEmpty());
+    }
+  }
+
+  @Test
+  void recordsSurviveCrossingASegmentBoundary(@TempDir Path folder) throws IOException {
+    // Three of them fill a segment
+    byte[][] records = new byte[5][];
+
+    for (int i = 0; i < records.length; i++) {
+      records[i] = new byte[1 << 20];
+      Arrays.fill(records[i], (byte) i);
+    }
+
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      for (byte[] record : records) {
+        assertTrue(outbox.append(record, 0, record.length));
+      }
+
+      assertEquals(2, segments(folder).size());
+    }
+
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      assertEquals(records.length, outbox.pendingCount());
+
+      for (int i = 0; i < 4; i++) {
+        assertArrayEquals(records[i], outbox.peek());
+        outbox.acknowledge();
+      }
+
+      // Moving to the second segment deletes the first one
+      assertEquals(1, segments(folder).size());
+    }
+
+    try (Outbox outbox = Outbox.open(folder, MAX_BYTES)) {
+      assertEquals(1, outbox.pendingCount());
+      assertArrayEquals(records[4], outbox.peek());
+    }
+  }
+
+  @Test
+  void fullOutboxRefusesRecordsUntilAcknowledged(@TempDir Path folder) throws IOException {
+    byte[] record = new byte[1 << 20];
+
+    try (Outbox outbox = Outbox.open(folder, Outbox.SEGMENT_BYTES)) {
+      int appended = 0;
+
+      while (outbox.append(record, 0, record.length)) {
+        appended++;
+      }
+
+      assertEquals(3, appended);
+      assertEquals(3, outbox.pendingCount());
+      assertEquals(1, segments(folder).size());
+
+      while (outbox.peek() != null) {
+        outbox.acknowledge();
+      }
+
+      assertTrue(outbox.append(record, 0, record.length));
+      assertFalse(outbox.isEmpty());
+    }
+  }
+
+  private static void append(Outbox outbox, String text) throws IOException {
+    byte[] payload = bytes(text);
+    assertTrue(outbox.append(payload, 0, payload.length));
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<Path> segments(Path folder) throws IOException {
+    try (Stream<Path> files = Files.list(folder)) {
+      return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+    }
+  }
+}
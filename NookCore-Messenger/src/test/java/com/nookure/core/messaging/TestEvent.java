@@ -0,0 +1,9 @@
+package com.nookure.core.messaging;
+
+import com.nookure.core.event.Event;
+
+/**
+ * An event sent through Java serialization
+ */
+public record TestEvent(String text) implements Event {
+}
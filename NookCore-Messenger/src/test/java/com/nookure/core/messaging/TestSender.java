@@ -0,0 +1,66 @@
+package com.nookure.core.messaging;
+
+import com.nookure.core.PlayerWrapperBase;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A sender that only has a name and a unique id
+ */
+public class TestSender implements PlayerWrapperBase {
+  private final UUID uniqueId = UUID.randomUUID();
+
+  @Override
+  public void sendPluginMessage(@NotNull String channel, byte @NotNull [] message) {
+  }
+
+  @Override
+  public @NotNull Set<String> getListeningPluginChannels() {
+    return Set.of();
+  }
+
+  @Override
+  public void teleport(@NotNull PlayerWrapperBase to) {
+  }
+
+  @Override
+  public void sendMessage(@NotNull Component component) {
+  }
+
+  @Override
+  public void sendActionbar(@NotNull Component component) {
+  }
+
+  @Override
+  public int getPing() {
+    return 0;
+  }
+
+  @Override
+  public @NotNull Component getDisplayName() {
+    return Component.text(getName());
+  }
+
+  @Override
+  public @NotNull String getName() {
+    return "Test";
+  }
+
+  @Override
+  public @NotNull UUID getUniqueId() {
+    return uniqueId;
+  }
+
+  @Override
+  public boolean hasPermission(@NotNull String permission) {
+    return false;
+  }
+
+  @Override
+  public boolean isPlayer() {
+    return false;
+  }
+}
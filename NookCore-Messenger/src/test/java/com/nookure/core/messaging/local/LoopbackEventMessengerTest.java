@@ -0,0 +1,82 @@
+package com.nookure.core.messaging.local;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.nookure.core.event.Event;
+import com.nookure.core.messaging.MessengerTestModule;
+import com.nookure.core.messaging.TestEvent;
+import com.nookure.core.messaging.TestSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoopbackEventMessengerTest {
+  private final Injector injector = Guice.createInjector(new MessengerTestModule());
+  private final LoopbackEventMessenger first = injector.getInstance(LoopbackEventMessenger.class);
+  private final LoopbackEventMessenger second = injector.getInstance(LoopbackEventMessenger.class);
+  private final List<Event> receivedByFirst = new ArrayList<>();
+  private final List<Event> receivedBySecond = new ArrayList<>();
+
+  LoopbackEventMessengerTest() {
+    first.prepare();
+    second.prepare();
+    first.addReceiver(receivedByFirst::add);
+    second.addReceiver(receivedBySecond::add);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    first.close();
+    second.close();
+  }
+
+  @Test
+  void publishedEventReachesEveryMessengerOfTheHub() {
+    assertEquals(2, injector.getInstance(LoopbackHub.class).getMemberCount());
+
+    first.publish(new TestSender(), new TestEvent("hello"));
+
+    assertEquals(List.of(new TestEvent("hello")), receivedBySecond);
+    assertEquals(List.of(new TestEvent("hello")), receivedByFirst);
+  }
+
+  @Test
+  void batchedEventsArriveInOrderOnFlush() {
+    first.enableBatching(64 << 10, Duration.ZERO);
+    TestSender sender = new TestSender();
+
+    first.publish(sender, new TestEvent("one"));
+    first.publish(sender, new TestEvent("two"));
+    assertEquals(List.of(), receivedBySecond);
+
+    first.flush();
+    assertEquals(List.of(new TestEvent("one"), new TestEvent("two")), receivedBySecond);
+  }
+
+  @Test
+  void originTrackingSuppressesOwnEvents() {
+    first.enableOriginTracking(UUID.randomUUID());
+
+    first.publish(new TestSender(), new TestEvent("hello"));
+
+    assertEquals(List.of(), receivedByFirst);
+    assertEquals(List.of(new TestEvent("hello")), receivedBySecond);
+    assertEquals(1, first.getSuppressedOwnCount());
+  }
+
+  @Test
+  void messengerStopsReceivingOnceClosed() throws Exception {
+    second.close();
+
+    first.publish(new TestSender(), new TestEvent("hello"));
+
+    assertEquals(List.of(), receivedBySecond);
+    assertEquals(1, injector.getInstance(LoopbackHub.class).getMemberCount());
+  }
+}
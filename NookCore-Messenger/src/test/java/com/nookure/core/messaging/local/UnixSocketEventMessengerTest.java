@@ -0,0 +1,142 @@
+package com.nookure.core.messaging.local;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.nookure.core.event.Event;
+import com.nookure.core.messaging.MessengerTestModule;
+import com.nookure.core.messaging.TestEvent;
+import com.nookure.core.messaging.TestSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnixSocketEventMessengerTest {
+  private final Injector injector = Guice.createInjector(new MessengerTestModule());
+  private final List<UnixSocketEventMessenger> messengers = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() throws Exception {
+    for (UnixSocketEventMessenger messenger : messengers) {
+      messenger.close();
+    }
+  }
+
+  @Test
+  void publishedEventReachesTheOtherProcessThroughTheHub(@TempDir Path folder) throws InterruptedException {
+    Path socket = folder.resolve("messenger.sock");
+    BlockingQueue<Event> receivedByHub = new LinkedBlockingQueue<>();
+    BlockingQueue<Event> receivedByClient = new LinkedBlockingQueue<>();
+
+    UnixSocketEventMessenger hub = start(socket, receivedByHub);
+    awaitHub(hub);
+    UnixSocketEventMessenger client = start(socket, receivedByClient);
+
+    client.publish(new TestSender(), new TestEvent("from client"));
+
+    assertEquals(new TestEvent("from client"), receivedByHub.poll(5, TimeUnit.SECONDS));
+    assertEquals(new TestEvent("from client"), receivedByClient.poll(5, TimeUnit.SECONDS));
+
+    hub.publish(new TestSender(), new TestEvent("from hub"));
+
+    assertEquals(new TestEvent("from hub"), receivedByClient.poll(5, TimeUnit.SECONDS));
+    assertEquals(new TestEvent("from hub"), receivedByHub.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void clientTakesOverWhenTheHubLeaves(@TempDir Path folder) throws Exception {
+    Path socket = folder.resolve("messenger.sock");
+    BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+
+    UnixSocketEventMessenger hub = start(socket, new LinkedBlockingQueue<>());
+    awaitHub(hub);
+    UnixSocketEventMessenger client = start(socket, received);
+
+    hub.close();
+    messengers.remove(hub);
+    awaitHub(client);
+
+    client.publish(new TestSender(), new TestEvent("still here"));
+    assertEquals(new TestEvent("still here"), received.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void eventsPublishedRightBeforeClosingAreSent(@TempDir Path folder) throws Exception {
+    Path socket = folder.resolve("messenger.sock");
+    BlockingQueue<Event> receivedByHub = new LinkedBlockingQueue<>();
+
+    UnixSocketEventMessenger hub = start(socket, receivedByHub);
+    awaitHub(hub);
+    UnixSocketEventMessenger client = start(socket, new LinkedBlockingQueue<>());
+
+    // Wait for the client to be connected
+    client.publish(new TestSender(), new TestEvent("connected"));
+    assertEquals(new TestEvent("connected"), receivedByHub.poll(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 100; i++) {
+      client.publish(new TestSender(), new TestEvent("last " + i));
+    }
+
+    client.close();
+    messengers.remove(client);
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals(new TestEvent("last " + i), receivedByHub.poll(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void smallFramesKeepFlowingAfterALargeOne(@TempDir Path folder) throws Exception {
+    Path socket = folder.resolve("messenger.sock");
+    BlockingQueue<Event> receivedByHub = new LinkedBlockingQueue<>();
+
+    UnixSocketEventMessenger hub = start(socket, receivedByHub);
+    awaitHub(hub);
+    UnixSocketEventMessenger client = start(socket, new LinkedBlockingQueue<>());
+
+    client.publish(new TestSender(), new TestEvent("connected"));
+    assertEquals(new TestEvent("connected"), receivedByHub.poll(5, TimeUnit.SECONDS));
+
+    // Far larger than the read buffer, which grows for it and shrinks back afterwards
+    TestEvent large = new TestEvent("x".repeat(1 << 20));
+    client.publish(new TestSender(), large);
+
+    for (int i = 0; i < 100; i++) {
+      client.publish(new TestSender(), new TestEvent("small " + i));
+    }
+
+    assertEquals(large, receivedByHub.poll(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals(new TestEvent("small " + i), receivedByHub.poll(5, TimeUnit.SECONDS));
+    }
+  }
+
+  private UnixSocketEventMessenger start(Path socket, BlockingQueue<Event> received) {
+    UnixSocketEventMessenger messenger = injector.getInstance(UnixSocketEventMessenger.class);
+    messenger.setSocketPath(socket);
+    messenger.addReceiver(received::add);
+    messenger.prepare();
+    messengers.add(messenger);
+    return messenger;
+  }
+
+  private static void awaitHub(UnixSocketEventMessenger messenger) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    while (!messenger.isHub() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertTrue(messenger.isHub());
+  }
+}
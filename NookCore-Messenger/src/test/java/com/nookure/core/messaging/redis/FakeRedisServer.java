@@ -0,0 +1,292 @@
+package com.nookure.core.messaging.redis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A redis stand-in speaking just enough RESP for the pub/sub commands the
+ * messenger sends, PING, SUBSCRIBE, UNSUBSCRIBE and PUBLISH.
+ * <p>
+ * Published payloads are recorded as soon as they are read, while the replies
+ * to them can be held back with {@link #pause()}, so a test can tell whether
+ * the client waits for a reply before sending the next publish. The server
+ * can be stopped and started again on the same port.
+ */
+class FakeRedisServer implements AutoCloseable {
+  private final BlockingQueue<byte[]> published = new LinkedBlockingQueue<>();
+  private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+  private final Semaphore replies = new Semaphore(0);
+  private volatile ServerSocket serverSocket;
+  private volatile boolean paused;
+  private int port;
+
+  /**
+   * Start the server, on a free port the first time and on the same port afterwards
+   */
+  synchronized void start() throws IOException {
+    ServerSocket socket = new ServerSocket();
+    socket.setReuseAddress(true);
+    socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    port = socket.getLocalPort();
+    serverSocket = socket;
+
+    Thread acceptor = new Thread(() -> accept(socket), "Fake Redis Acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Stop the server and drop every connection, as a crashed server would
+   */
+  synchronized void stop() throws IOException {
+    ServerSocket socket = serverSocket;
+    serverSocket = null;
+
+    if (socket != null) {
+      socket.close();
+    }
+
+    for (Connection connection : connections) {
+      connection.close();
+    }
+  }
+
+  int port() {
+    return port;
+  }
+
+  /**
+   * Hold back the replies to publishes until they are released or {@link #resume()} is called
+   */
+  void pause() {
+    replies.drainPermits();
+    paused = true;
+  }
+
+  /**
+   * Let the given amount of held back publishes be answered while paused
+   */
+  void release(int count) {
+    replies.release(count);
+  }
+
+  void resume() {
+    if (!paused) return;
+
+    paused = false;
+    replies.release(Integer.MAX_VALUE / 2);
+  }
+
+  /**
+   * Get the payloads published so far, in the order they were received
+   */
+  BlockingQueue<byte[]> published() {
+    return published;
+  }
+
+  private void accept(ServerSocket socket) {
+    while (!socket.isClosed()) {
+      try {
+        Connection connection = new Connection(socket.accept());
+        connections.add(connection);
+
+        Thread thread = new Thread(connection::serve, "Fake Redis Connection");
+        thread.setDaemon(true);
+        thread.start();
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    resume();
+    stop();
+  }
+
+  private final class Connection {
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    // Replies are written apart from reading, so commands keep being read while replies are held back
+    private final ExecutorService replier = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "Fake Redis Replier");
+      thread.setDaemon(true);
+      return thread;
+    });
+    private volatile byte[] subscribedChannel;
+
+    private Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      this.in = new BufferedInputStream(socket.getInputStream());
+      this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    private void serve() {
+      try {
+        while (true) {
+          List<byte[]> command = readCommand();
+          String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+
+          if (name.equals("PUBLISH")) {
+            published.add(command.get(2));
+          }
+
+          replier.execute(() -> {
+            try {
+              reply(name, command);
+            } catch (IOException | InterruptedException e) {
+              close();
+            }
+          });
+        }
+      } catch (IOException e) {
+        close();
+      }
+    }
+
+    private void reply(String name, List<byte[]> command) throws IOException, InterruptedException {
+      switch (name) {
+        case "PING" -> write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+        case "SUBSCRIBE" -> {
+          subscribedChannel = command.get(1);
+          writePush("subscribe", command.get(1), 1);
+        }
+        case "UNSUBSCRIBE" -> {
+          writePush("unsubscribe", subscribedChannel, 0);
+          subscribedChannel = null;
+        }
+        case "PUBLISH" -> {
+          if (paused) {
+            replies.acquire();
+          }
+
+          int receivers = forward(command.get(1), command.get(2));
+          write((":" + receivers + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        default -> write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+      }
+    }
+
+    private int forward(byte[] channel, byte[] payload) {
+      int receivers = 0;
+
+      for (Connection connection : connections) {
+        byte[] subscribed = connection.subscribedChannel;
+
+        if (subscribed == null || !Arrays.equals(subscribed, channel)) continue;
+
+        try {
+          synchronized (connection.out) {
+            connection.writeArrayHeader(3);
+            connection.writeBulk("message".getBytes(StandardCharsets.US_ASCII));
+            connection.writeBulk(channel);
+            connection.writeBulk(payload);
+            connection.out.flush();
+          }
+          receivers++;
+        } catch (IOException e) {
+          connection.close();
+        }
+      }
+
+      return receivers;
+    }
+
+    private List<byte[]> readCommand() throws IOException {
+      expect('*');
+      int count = Integer.parseInt(readLine());
+      List<byte[]> command = new ArrayList<>(count);
+
+      for (int i = 0; i < count; i++) {
+        expect('$');
+        int length = Integer.parseInt(readLine());
+        byte[] argument = in.readNBytes(length);
+
+        if (argument.length < length) throw new EOFException();
+
+        command.add(argument);
+        readLine();
+      }
+
+      return command;
+    }
+
+    private void expect(char type) throws IOException {
+      int read = in.read();
+
+      if (read == -1) throw new EOFException();
+      if (read != type) throw new IOException("Expected " + type + " but got " + (char) read);
+    }
+
+    private String readLine() throws IOException {
+      StringBuilder line = new StringBuilder();
+      int read;
+
+      while ((read = in.read()) != '\r') {
+        if (read == -1) throw new EOFException();
+        line.append((char) read);
+      }
+
+      in.read();
+      return line.toString();
+    }
+
+    private void writePush(String kind, byte[] channel, int count) throws IOException {
+      synchronized (out) {
+        writeArrayHeader(3);
+        writeBulk(kind.getBytes(StandardCharsets.US_ASCII));
+        writeBulk(channel);
+        out.write((":" + count + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+      }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+      synchronized (out) {
+        out.write(bytes);
+        out.flush();
+      }
+    }
+
+    private void writeArrayHeader(int count) throws IOException {
+      out.write(("*" + count + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void writeBulk(byte[] bytes) throws IOException {
+      out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+      out.write(bytes);
+      out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void close() {
+      connections.remove(this);
+      replier.shutdownNow();
+
+      try {
+        socket.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+}
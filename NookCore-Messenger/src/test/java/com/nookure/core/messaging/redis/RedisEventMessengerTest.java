@@ -0,0 +1,131 @@
+package com.nookure.core.messaging.redis;
+
+import com.google.inject.Guice;
+import com.nookure.core.event.Event;
+import com.nookure.core.messaging.MessengerTestModule;
+import com.nookure.core.messaging.TestEvent;
+import com.nookure.core.messaging.TestSender;
+import com.nookure.core.messaging.redis.config.RedisConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisEventMessengerTest {
+  private final FakeRedisServer server = new FakeRedisServer();
+  private final BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+  private RedisEventMessenger messenger;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server.start();
+    messenger = Guice.createInjector(new MessengerTestModule()).getInstance(RedisEventMessenger.class);
+    messenger.addReceiver(received::add);
+    messenger.prepare(new RedisConfig("127.0.0.1", server.port()));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    server.resume();
+    messenger.close();
+    server.close();
+  }
+
+  @Test
+  void queuedEventsArePublishedInASinglePipeline() throws InterruptedException {
+    TestSender sender = new TestSender();
+    server.pause();
+
+    // The publisher waits for the reply to the first event while the others are queued
+    messenger.publish(sender, new TestEvent("event 0"));
+    await(() -> server.published().size() == 1);
+
+    for (int i = 1; i < 200; i++) {
+      messenger.publish(sender, new TestEvent("event " + i));
+    }
+
+    server.release(1);
+
+    // Every queued event reaches the server while none of them has been answered
+    await(() -> server.published().size() == 200);
+
+    server.resume();
+
+    List<Event> publishedEvents = new ArrayList<>();
+    List<Event> receivedEvents = new ArrayList<>();
+
+    for (int i = 0; i < 200; i++) {
+      publishedEvents.add(messenger.decodeEvent(server.published().take()).orElseThrow());
+      receivedEvents.add(received.poll(5, TimeUnit.SECONDS));
+    }
+
+    for (int i = 0; i < 200; i++) {
+      assertEquals(new TestEvent("event " + i), publishedEvents.get(i));
+      assertEquals(new TestEvent("event " + i), receivedEvents.get(i));
+    }
+  }
+
+  @Test
+  void outboxIsReplayedOnceReconnected(@TempDir Path folder) throws Exception {
+    TestSender sender = new TestSender();
+    messenger.enableOutbox(folder, () -> sender, 16 * 1024 * 1024);
+
+    messenger.publish(sender, new TestEvent("before"));
+    assertEquals(new TestEvent("before"), messenger.decodeEvent(server.published().poll(5, TimeUnit.SECONDS)).orElseThrow());
+
+    server.stop();
+
+    // Publish until the lost connection is noticed and events go to the outbox
+    Set<Event> expected = new HashSet<>();
+    int sent = 0;
+
+    while (messenger.getOutboxPendingCount() == 0) {
+      assertTrue(sent < 1000, "The outbox was never used");
+
+      TestEvent event = new TestEvent("during " + sent++);
+      expected.add(event);
+      messenger.publish(sender, event);
+      Thread.sleep(10);
+    }
+
+    server.start();
+
+    // The events queued before the loss was noticed are sent again with the failed pipeline
+    Set<Event> published = new HashSet<>();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+    while (!published.containsAll(expected) && System.nanoTime() < deadline) {
+      byte[] payload = server.published().poll(100, TimeUnit.MILLISECONDS);
+
+      if (payload != null) {
+        published.add(messenger.decodeEvent(payload).orElseThrow());
+      }
+    }
+
+    assertTrue(published.containsAll(expected), "Missing events after reconnecting");
+    await(() -> messenger.getOutboxPendingCount() == 0);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertTrue(condition.getAsBoolean());
+  }
+}
@@ -0,0 +1,147 @@
+package com.nookure.core.messaging.rpc;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.nookure.core.messaging.EventMessenger;
+import com.nookure.core.messaging.MessengerTestModule;
+import com.nookure.core.messaging.TestEvent;
+import com.nookure.core.messaging.TestSender;
+import com.nookure.core.messaging.local.LoopbackEventMessenger;
+import com.nookure.core.messaging.local.LoopbackHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RpcManagerTest {
+  // Every node shares the hub of the parent injector
+  private final Injector network = Guice.createInjector(new MessengerTestModule(), new AbstractModule() {
+    @Override
+    protected void configure() {
+      bind(LoopbackHub.class);
+    }
+  });
+  private final Node first = new Node(network);
+  private final Node second = new Node(network);
+  private final Node third = new Node(network);
+
+  @AfterEach
+  void tearDown() throws Exception {
+    first.close();
+    second.close();
+    third.close();
+  }
+
+  @Test
+  void requestIsAnsweredByAnotherNode() throws Exception {
+    second.rpc.registerHandler(TestEvent.class, request -> new TestEvent("re: " + request.text()));
+
+    TestEvent reply = first.rpc.request(new TestEvent("ping"), TestEvent.class, Duration.ofSeconds(5))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(new TestEvent("re: ping"), reply);
+    assertEquals(0, first.rpc.getPendingCount());
+  }
+
+  @Test
+  void requestWithoutReplyTimesOut() {
+    CompletableFuture<TestEvent> future = first.rpc.request(new TestEvent("ping"), TestEvent.class, Duration.ofMillis(50));
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+
+    assertInstanceOf(TimeoutException.class, exception.getCause());
+    assertEquals(0, first.rpc.getPendingCount());
+  }
+
+  @Test
+  void failedHandlerFailsTheRequest() {
+    second.rpc.registerHandler(TestEvent.class, request -> {
+      throw new IllegalStateException("Unknown player");
+    });
+
+    CompletableFuture<TestEvent> future = first.rpc.request(new TestEvent("ping"), TestEvent.class, Duration.ofSeconds(5));
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+
+    assertInstanceOf(RpcException.class, exception.getCause());
+  }
+
+  @Test
+  void requestAllGathersTheRepliesOfTheOtherNodes() throws Exception {
+    first.rpc.registerHandler(TestEvent.class, request -> new TestEvent("first"));
+    second.rpc.registerHandler(TestEvent.class, request -> new TestEvent("second"));
+    third.rpc.registerHandler(TestEvent.class, request -> new TestEvent("third"));
+
+    List<TestEvent> replies = first.rpc.requestAll(new TestEvent("ping"), TestEvent.class, Duration.ofSeconds(5), 2)
+        .get(5, TimeUnit.SECONDS);
+
+    // The requester doesn't handle its own request
+    assertEquals(Set.of(new TestEvent("second"), new TestEvent("third")), Set.copyOf(replies));
+    assertEquals(0, first.rpc.getPendingCount());
+  }
+
+  @Test
+  void requestAllCompletesWithTheRepliesGatheredBeforeTheTimeout() throws Exception {
+    second.rpc.registerHandler(TestEvent.class, request -> new TestEvent("second"));
+
+    List<TestEvent> replies = first.rpc.requestAll(new TestEvent("ping"), TestEvent.class, Duration.ofMillis(100), 2)
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of(new TestEvent("second")), replies);
+  }
+
+  @Test
+  void closeFailsThePendingRequests() {
+    CompletableFuture<TestEvent> future = first.rpc.request(new TestEvent("ping"), TestEvent.class, Duration.ofMinutes(1));
+
+    first.rpc.close();
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+
+    assertInstanceOf(RpcException.class, exception.getCause());
+    assertEquals(0, first.rpc.getPendingCount());
+    assertThrows(IllegalStateException.class, () -> first.rpc.request(new TestEvent("ping"), TestEvent.class, Duration.ofSeconds(5)));
+  }
+
+  /**
+   * A node of the network, with its own messenger and RPC manager
+   */
+  private static final class Node {
+    private final LoopbackEventMessenger messenger;
+    private final RpcManager rpc;
+
+    private Node(Injector network) {
+      Injector injector = network.createChildInjector(new AbstractModule() {
+        @Override
+        protected void configure() {
+          bind(RpcManager.class);
+          bind(LoopbackEventMessenger.class).in(Singleton.class);
+          bind(EventMessenger.class).to(LoopbackEventMessenger.class);
+        }
+      });
+
+      messenger = injector.getInstance(LoopbackEventMessenger.class);
+      rpc = injector.getInstance(RpcManager.class);
+
+      messenger.prepare();
+      rpc.start(TestSender::new);
+    }
+
+    private void close() throws Exception {
+      rpc.close();
+      messenger.close();
+    }
+  }
+}
@@ -0,0 +1,12 @@
+plugins {
+  alias(libs.plugins.jmh)
+}
+
+dependencies {
+  jmh(libs.adventureApi)
+  jmh(libs.miniMessage)
+}
+
+jmh {
+  jmhVersion = libs.versions.jmh
+}
@@ -0,0 +1,165 @@
+package com.nookure.core.manager;
+
+import com.nookure.core.PlayerWrapperBase;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PlayerWrapperManager} lookups under contention, once with
+ * readers only and once while other threads keep adding and removing
+ * players, the case the synchronized map used to serialize.
+ * <p>
+ * Run it with {@code ./gradlew :NookCore-Player:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerWrapperManagerBenchmark {
+  private static final int PLAYERS = 500;
+
+  private final PlayerWrapperManager<Object, BenchmarkPlayer> manager = new PlayerWrapperManager<>();
+  private final Object[] players = new Object[PLAYERS];
+  private final UUID[] uuids = new UUID[PLAYERS];
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < PLAYERS; i++) {
+      BenchmarkPlayer player = new BenchmarkPlayer("Player" + i);
+      players[i] = new Object();
+      uuids[i] = player.getUniqueId();
+      manager.addPlayerWrapper(players[i], player);
+    }
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Optional<BenchmarkPlayer> readOnly() {
+    return lookup();
+  }
+
+  @Benchmark
+  @Group("churn")
+  @GroupThreads(6)
+  public Optional<BenchmarkPlayer> churnLookup() {
+    return lookup();
+  }
+
+  @Benchmark
+  @Group("churn")
+  @GroupThreads(2)
+  public boolean churnJoinAndLeave(Joining joining) {
+    return joining.toggle(manager);
+  }
+
+  private Optional<BenchmarkPlayer> lookup() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int i = random.nextInt(PLAYERS);
+
+    return random.nextBoolean()
+        ? manager.getPlayerWrapper(uuids[i])
+        : manager.getPlayerWrapper(players[i]);
+  }
+
+  /**
+   * A player of its own for every writer thread, joining and leaving in turn
+   */
+  @State(Scope.Thread)
+  public static class Joining {
+    private final Object player = new Object();
+    private final BenchmarkPlayer wrapper = new BenchmarkPlayer("Joining" + UUID.randomUUID());
+    private boolean online;
+
+    boolean toggle(PlayerWrapperManager<Object, BenchmarkPlayer> manager) {
+      if (online) {
+        manager.removePlayerWrapper(player);
+      } else {
+        manager.addPlayerWrapper(player, wrapper);
+      }
+
+      online = !online;
+      return online;
+    }
+  }
+
+  public static class BenchmarkPlayer implements PlayerWrapperBase {
+    private final String name;
+    private final UUID uniqueId = UUID.randomUUID();
+
+    BenchmarkPlayer(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void sendPluginMessage(@NotNull String channel, byte @NotNull [] message) {
+    }
+
+    @Override
+    public @NotNull Set<String> getListeningPluginChannels() {
+      return Set.of();
+    }
+
+    @Override
+    public void teleport(@NotNull PlayerWrapperBase to) {
+    }
+
+    @Override
+    public void sendMessage(@NotNull Component component) {
+    }
+
+    @Override
+    public void sendActionbar(@NotNull Component component) {
+    }
+
+    @Override
+    public int getPing() {
+      return 0;
+    }
+
+    @Override
+    public @NotNull Component getDisplayName() {
+      return Component.text(name);
+    }
+
+    @Override
+    public @NotNull String getName() {
+      return name;
+    }
+
+    @Override
+    public @NotNull UUID getUniqueId() {
+      return uniqueId;
+    }
+
+    @Override
+    public boolean hasPermission(@NotNull String permission) {
+      return false;
+    }
+
+    @Override
+    public boolean isPlayer() {
+      return true;
+    }
+  }
+}
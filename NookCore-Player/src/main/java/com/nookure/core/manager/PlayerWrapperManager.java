@@ -1,13 +1,13 @@
 package com.nookure.core.manager;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.inject.Singleton;
 import com.nookure.core.PlayerWrapperBase;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Stream;
 
 /**
@@ -15,6 +15,17 @@ import java.util.stream.Stream;
  * <p>
  * You can get the instance of this class by injecting it,
  * see {@link com.google.inject.Injector#getInstance(Class)}
+ * <p>
+ * Lookups never lock, the players and their wrappers are kept in concurrent
+ * maps, one per direction, updated together on add and remove. A lookup
+ * racing an add or a remove of the same player may see it in one direction
+ * and not yet in the other.
+ * <p>
+ * Player wrappers are also indexed by their lowercase name, for exact lookups
+ * and for completions by prefix. The name is read when the player wrapper is
+ * added and removed, so it must not change in between. Players sharing a name
+ * stay indexed until each of them is removed, a lookup by name returns the
+ * one added last.
  * <br>
  *
  * @param <T> The player class of the player wrapper implementation
@@ -27,8 +38,12 @@ import java.util.stream.Stream;
  */
 @Singleton
 public class PlayerWrapperManager<T, P extends PlayerWrapperBase> {
-  private final BiMap<T, P> playerWrappersByPlayerClass = HashBiMap.create();
+  private final Map<T, P> playerWrappersByPlayerClass = new ConcurrentHashMap<>();
+  private final Map<P, T> playersByPlayerWrapper = new ConcurrentHashMap<>();
   private final Map<UUID, P> playerWrappersByUUID = new ConcurrentHashMap<>();
+  // The values are immutable lists, in the order the players were added
+  private final Map<String, List<P>> playerWrappersByName = new ConcurrentHashMap<>();
+  private final ConcurrentNavigableMap<String, List<P>> playerWrappersByNameOrder = new ConcurrentSkipListMap<>();
 
   /**
    * Gets a player wrapper by its player class.
@@ -39,9 +54,7 @@ public class PlayerWrapperManager<T, P extends PlayerWrapperBase> {
   @NotNull
   public Optional<P> getPlayerWrapper(@NotNull T player) {
     Objects.requireNonNull(player, "Player cannot be null");
-    synchronized (playerWrappersByPlayerClass) {
-      return Optional.ofNullable(playerWrappersByPlayerClass.get(player));
-    }
+    return Optional.ofNullable(playerWrappersByPlayerClass.get(player));
   }
 
   /**
@@ -56,6 +69,70 @@ public class PlayerWrapperManager<T, P extends PlayerWrapperBase> {
     return Optional.ofNullable(playerWrappersByUUID.get(uuid));
   }
 
+  /**
+   * Gets a player wrapper by its name, ignoring case.
+   * If several players share the name, the one added last is returned.
+   *
+   * @param name the name of the player
+   * @return an optional containing the player wrapper if it exists
+   * @since 1.1.0
+   */
+  @NotNull
+  public Optional<P> getPlayerWrapperByName(@NotNull String name) {
+    Objects.requireNonNull(name, "Name cannot be null");
+    List<P> playerWrappers = playerWrappersByName.get(normalize(name));
+    return playerWrappers == null ? Optional.empty() : Optional.of(playerWrappers.get(playerWrappers.size() - 1));
+  }
+
+  /**
+   * Gets the player wrappers whose name starts with a prefix, ignoring case.
+   *
+   * @param prefix the prefix of the names
+   * @param limit  the maximum amount of player wrappers to return
+   * @return the player wrappers, sorted by name
+   * @since 1.1.0
+   */
+  @NotNull
+  public List<P> getPlayerWrappersByPrefix(@NotNull String prefix, int limit) {
+    Objects.requireNonNull(prefix, "Prefix cannot be null");
+
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative");
+    }
+
+    List<P> playerWrappers = new ArrayList<>(Math.min(limit, 16));
+
+    for (List<P> sameName : withPrefix(prefix).values()) {
+      for (P playerWrapperBase : sameName) {
+        if (playerWrappers.size() >= limit) return playerWrappers;
+        playerWrappers.add(playerWrapperBase);
+      }
+    }
+
+    return playerWrappers;
+  }
+
+  /**
+   * Gets the names of the players whose name starts with a prefix, ignoring case,
+   * e.g. to complete a command argument.
+   *
+   * @param prefix the prefix of the names
+   * @param limit  the maximum amount of names to return
+   * @return the names as the players spell them, sorted
+   * @since 1.1.0
+   */
+  @NotNull
+  public List<String> getPlayerNamesByPrefix(@NotNull String prefix, int limit) {
+    List<P> playerWrappers = getPlayerWrappersByPrefix(prefix, limit);
+    List<String> names = new ArrayList<>(playerWrappers.size());
+
+    for (P playerWrapperBase : playerWrappers) {
+      names.add(playerWrapperBase.getName());
+    }
+
+    return names;
+  }
+
   /**
    * Gets a player by its player wrapper.
    *
@@ -65,24 +142,44 @@ public class PlayerWrapperManager<T, P extends PlayerWrapperBase> {
   @NotNull
   public Optional<T> getPlayer(@NotNull P playerWrapperBase) {
     Objects.requireNonNull(playerWrapperBase, "PlayerWrapper cannot be null");
-    synchronized (playerWrappersByPlayerClass) {
-      return Optional.ofNullable(playerWrappersByPlayerClass.inverse().get(playerWrapperBase));
-    }
+    return Optional.ofNullable(playersByPlayerWrapper.get(playerWrapperBase));
   }
 
   /**
-   * Adds a player wrapper to the manager.
+   * Adds a player wrapper to the manager, replacing the previous
+   * player wrapper of the player if there's one.
    *
    * @param player            the player that will be used as a key
    * @param playerWrapperBase the player wrapper that will be used as a value
+   * @throws IllegalArgumentException if the player wrapper is already bound to another player
    */
   public void addPlayerWrapper(@NotNull T player, @NotNull P playerWrapperBase) {
     Objects.requireNonNull(player, "Player cannot be null");
     Objects.requireNonNull(playerWrapperBase, "PlayerWrapper cannot be null");
-    synchronized (playerWrappersByPlayerClass) {
-      playerWrappersByPlayerClass.put(player, playerWrapperBase);
-    }
-    playerWrappersByUUID.put(playerWrapperBase.getUniqueId(), playerWrapperBase);
+
+    // The other maps are only updated while holding the entry of the player
+    playerWrappersByPlayerClass.compute(player, (key, previous) -> {
+      T bound = playersByPlayerWrapper.putIfAbsent(playerWrapperBase, key);
+
+      if (bound != null && !bound.equals(key)) {
+        throw new IllegalArgumentException("PlayerWrapper is already bound to another player");
+      }
+
+      if (previous != null && !previous.equals(playerWrapperBase)) {
+        playersByPlayerWrapper.remove(previous, key);
+        unindex(previous);
+      }
+
+      playerWrappersByUUID.put(playerWrapperBase.getUniqueId(), playerWrapperBase);
+
+      if (!playerWrapperBase.equals(previous)) {
+        String name = normalize(playerWrapperBase.getName());
+        playerWrappersByName.compute(name, (ignored, playerWrappers) -> with(playerWrappers, playerWrapperBase));
+        playerWrappersByNameOrder.compute(name, (ignored, playerWrappers) -> with(playerWrappers, playerWrapperBase));
+      }
+
+      return playerWrapperBase;
+    });
   }
 
   /**
@@ -92,12 +189,48 @@ public class PlayerWrapperManager<T, P extends PlayerWrapperBase> {
    */
   public void removePlayerWrapper(@NotNull T player) {
     Objects.requireNonNull(player, "Player cannot be null");
-    synchronized (playerWrappersByPlayerClass) {
-      P playerWrapperBase = playerWrappersByPlayerClass.remove(player);
-      if (playerWrapperBase != null) {
-        playerWrappersByUUID.remove(playerWrapperBase.getUniqueId());
-      }
-    }
+    playerWrappersByPlayerClass.computeIfPresent(player, (key, playerWrapperBase) -> {
+      playersByPlayerWrapper.remove(playerWrapperBase, key);
+      unindex(playerWrapperBase);
+      return null;
+    });
+  }
+
+  private void unindex(P playerWrapperBase) {
+    String name = normalize(playerWrapperBase.getName());
+    playerWrappersByUUID.remove(playerWrapperBase.getUniqueId(), playerWrapperBase);
+    playerWrappersByName.computeIfPresent(name, (ignored, playerWrappers) -> without(playerWrappers, playerWrapperBase));
+    playerWrappersByNameOrder.computeIfPresent(name, (ignored, playerWrappers) -> without(playerWrappers, playerWrapperBase));
+  }
+
+  private static <P> List<P> with(List<P> playerWrappers, P playerWrapperBase) {
+    if (playerWrappers == null) return List.of(playerWrapperBase);
+
+    List<P> updated = new ArrayList<>(playerWrappers.size() + 1);
+    updated.addAll(playerWrappers);
+    updated.add(playerWrapperBase);
+    return List.copyOf(updated);
+  }
+
+  /**
+   * @return the list without the player wrapper, or null if it's left empty
+   */
+  private static <P> List<P> without(List<P> playerWrappers, P playerWrapperBase) {
+    List<P> updated = playerWrappers.stream()
+        .filter(other -> !other.equals(playerWrapperBase))
+        .toList();
+
+    return updated.isEmpty() ? null : updated;
+  }
+
+  private ConcurrentNavigableMap<String, List<P>> withPrefix(String prefix) {
+    String from = normalize(prefix);
+    // Every name starting with the prefix sorts before the prefix followed by the highest char
+    return playerWrappersByNameOrder.subMap(from, true, from + Character.MAX_VALUE, false);
+  }
+
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
   }
 
   /**
@@ -113,9 +246,8 @@ public class PlayerWrapperManager<T, P extends PlayerWrapperBase> {
    * Clears all the mappings from the manager.
    */
   public void clear() {
-    synchronized (playerWrappersByPlayerClass) {
-      playerWrappersByPlayerClass.clear();
+    for (T player : playerWrappersByPlayerClass.keySet()) {
+      removePlayerWrapper(player);
     }
-    playerWrappersByUUID.clear();
   }
 }
@@ -0,0 +1,90 @@
+package com.nookure.core.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlayerWrapperManagerTest {
+  private final PlayerWrapperManager<Object, TestPlayer> manager = new PlayerWrapperManager<>();
+
+  @Test
+  void looksUpByNameIgnoringCase() {
+    Object player = new Object();
+    TestPlayer steve = new TestPlayer("Steve");
+    manager.addPlayerWrapper(player, steve);
+
+    assertEquals(Optional.of(steve), manager.getPlayerWrapperByName("sTEVE"));
+    assertEquals(Optional.of(steve), manager.getPlayerWrapper(steve.getUniqueId()));
+    assertEquals(Optional.of(player), manager.getPlayer(steve));
+
+    manager.removePlayerWrapper(player);
+
+    assertEquals(Optional.empty(), manager.getPlayerWrapperByName("Steve"));
+    assertEquals(List.of(), manager.getPlayerNamesByPrefix("st", 10));
+  }
+
+  @Test
+  void playersSharingANameStayIndexedUntilEachLeaves() {
+    Object firstPlayer = new Object();
+    Object secondPlayer = new Object();
+    TestPlayer first = new TestPlayer("Steve");
+    TestPlayer second = new TestPlayer("steve");
+
+    manager.addPlayerWrapper(firstPlayer, first);
+    manager.addPlayerWrapper(secondPlayer, second);
+
+    assertEquals(Optional.of(second), manager.getPlayerWrapperByName("STEVE"));
+    assertEquals(List.of(first, second), manager.getPlayerWrappersByPrefix("ste", 10));
+
+    // The one that leaves takes its own entry only
+    manager.removePlayerWrapper(secondPlayer);
+    assertEquals(Optional.of(first), manager.getPlayerWrapperByName("steve"));
+    assertEquals(List.of("Steve"), manager.getPlayerNamesByPrefix("s", 10));
+
+    manager.addPlayerWrapper(secondPlayer, second);
+    manager.removePlayerWrapper(firstPlayer);
+    assertEquals(Optional.of(second), manager.getPlayerWrapperByName("steve"));
+
+    manager.removePlayerWrapper(secondPlayer);
+    assertEquals(Optional.empty(), manager.getPlayerWrapperByName("steve"));
+  }
+
+  @Test
+  void replacingAWrapperReindexesThePlayer() {
+    Object player = new Object();
+    TestPlayer before = new TestPlayer("Alex");
+    TestPlayer after = new TestPlayer("Alexander");
+
+    manager.addPlayerWrapper(player, before);
+    manager.addPlayerWrapper(player, before);
+    manager.addPlayerWrapper(player, after);
+
+    assertEquals(Optional.empty(), manager.getPlayerWrapperByName("alex"));
+    assertEquals(List.of("Alexander"), manager.getPlayerNamesByPrefix("alex", 10));
+    assertEquals(Optional.empty(), manager.getPlayerWrapper(before.getUniqueId()));
+  }
+
+  @Test
+  void prefixLookupsStopAtTheLimit() {
+    for (String name : List.of("Bob", "bob", "Bobby", "Bill", "Carl")) {
+      manager.addPlayerWrapper(new Object(), new TestPlayer(name));
+    }
+
+    assertEquals(List.of("Bob", "bob"), manager.getPlayerNamesByPrefix("BO", 2));
+    assertEquals(3, manager.getPlayerNamesByPrefix("bo", 10).size());
+    assertEquals(List.of(), manager.getPlayerNamesByPrefix("b", 0));
+    assertThrows(IllegalArgumentException.class, () -> manager.getPlayerNamesByPrefix("b", -1));
+  }
+
+  @Test
+  void wrapperCantBeBoundToTwoPlayers() {
+    TestPlayer steve = new TestPlayer("Steve");
+    manager.addPlayerWrapper(new Object(), steve);
+
+    assertThrows(IllegalArgumentException.class, () -> manager.addPlayerWrapper(new Object(), steve));
+  }
+}
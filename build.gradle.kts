@@ -2,6 +2,7 @@ plugins {
   alias(libs.plugins.grgitPublish)
   alias(libs.plugins.shadowJar)
   alias(libs.plugins.grgit)
+  alias(libs.plugins.jmh) apply false
   id("java")
   id("maven-publish")
 }
@@ -43,6 +44,13 @@ subprojects {
     compileOnly(rootProject.libs.adventureApi)
     compileOnly(rootProject.libs.miniMessage)
     compileOnly(rootProject.libs.caffeine)
+
+    testImplementation(platform(rootProject.libs.junitBom))
+    testImplementation(rootProject.libs.junitJupiter)
+    testRuntimeOnly(rootProject.libs.junitPlatformLauncher)
+    testImplementation(rootProject.libs.guice)
+    testImplementation(rootProject.libs.adventureApi)
+    testImplementation(rootProject.libs.miniMessage)
   }
 
   java {
@@ -58,6 +66,10 @@ subprojects {
     withType<Javadoc> {
       options.encoding = "UTF-8"
     }
+
+    withType<Test> {
+      useJUnitPlatform()
+    }
   }
 
   publishing {
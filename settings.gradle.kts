@@ -4,6 +4,7 @@ include("NookCore-Logger")
 include("NookCore-Core")
 include("NookCore-Config")
 include("NookCore-Event")
+include("NookCore-Event-Processor")
 include("NookCore-Messenger")
 include("NookCore-Player")
 include("NookCore-Bootstrapper")